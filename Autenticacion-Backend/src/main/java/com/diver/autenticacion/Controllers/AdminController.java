@@ -1,16 +1,30 @@
 package com.diver.autenticacion.Controllers;
 
-;
 import com.diver.autenticacion.Dto.UserDto;
+import com.diver.autenticacion.Dto.reques.RevokeTokenRequestDTO;
+import com.diver.autenticacion.Dto.response.UserImportResultDTO;
+import com.diver.autenticacion.Services.AuthService;
+import com.diver.autenticacion.Services.UserImportService;
 import com.diver.autenticacion.Services.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -19,6 +33,13 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final AuthService authService;
+    private final UserImportService userImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
 
     /**
      * Endpoint para obtener una lista de todos los usuarios del sistema.
@@ -32,6 +53,31 @@ public class AdminController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Endpoint para exportar todos los usuarios en NDJSON (un objeto JSON por línea, sin contraseña).
+     * Se escribe fila a fila según se lee del cursor de la base de datos: la primera línea llega enseguida
+     * y la memoria usada no depende del número de usuarios.
+     * @param response La respuesta en la que se escribe la exportación.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null); // el separador entre objetos es el salto de línea
+            userService.exportAllUsers(user -> {
+                try {
+                    objectMapper.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // p. ej. el cliente cerró la conexión: se corta el cursor
+                }
+            });
+        }
+    }
+
     /**
      * Endpoint para que un administrador vea el perfil de cualquier usuario por su ID.
      * @PreAuthorize("hasRole('ADMIN')") asegura que solo los administradores pueden invocar este método.
@@ -44,4 +90,34 @@ public class AdminController {
         UserDto userDTO = userService.findUserById(userId);
         return ResponseEntity.ok(userDTO);
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint para dar de alta usuarios en bloque (p. ej. al incorporar un cliente nuevo).
+     * Acepta NDJSON ({@code application/x-ndjson}, un objeto como el del registro por línea) o CSV
+     * ({@code text/csv}, con cabecera {@code username,email,password[,role]}). El fichero se procesa en streaming
+     * y una fila errónea no detiene la importación: se informa en la respuesta con su número de línea.
+     * @param request La petición, cuyo cuerpo es el fichero.
+     * @return El resumen de la importación con los errores por fila.
+     */
+    @PostMapping(value = "/users/import", consumes = {NDJSON, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResultDTO> importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), format));
+    }
+
+    /**
+     * Endpoint para que un administrador revoque un access token antes de su expiración.
+     * El token deja de autenticar en todas las instancias que compartan la denylist.
+     * @param request El token a revocar.
+     * @return 204 No Content si el token quedó revocado.
+     */
+    @PostMapping("/tokens/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeToken(@Valid @RequestBody RevokeTokenRequestDTO request) {
+        authService.revokeToken(request.token());
+        return ResponseEntity.noContent().build();
+    }
+}
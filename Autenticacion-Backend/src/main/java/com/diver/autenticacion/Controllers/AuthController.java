@@ -4,18 +4,35 @@ import com.diver.autenticacion.Dto.UserDto;
 import com.diver.autenticacion.Dto.reques.LoginRequestDTO;
 import com.diver.autenticacion.Dto.reques.RegisterRequestDTO;
 import com.diver.autenticacion.Dto.response.AuthResponseDTO;
+import com.diver.autenticacion.Dto.response.IntrospectionResultDTO;
 import com.diver.autenticacion.Services.AuthService;
+import com.diver.autenticacion.Services.TokenIntrospectionService;
 import com.diver.autenticacion.config.CookieUtil;
+import com.diver.autenticacion.config.JwtSigningKeys;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders; // <-- Importante: para Set-Cookie
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -24,6 +41,12 @@ public class AuthController {
 
     private final AuthService authService;
     private final CookieUtil cookieUtil;
+    private final JwtSigningKeys signingKeys;
+    private final TokenIntrospectionService introspectionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${jwt.keys.jwksMaxAge:3600}")
+    private long jwksMaxAgeSeconds;
 
     @PostMapping("/register")
     public ResponseEntity<UserDto> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest) {
@@ -61,11 +84,58 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<String> logoutUser() {
+    public ResponseEntity<String> logoutUser(HttpServletRequest request) {
+        // Revocamos los tokens en el servidor: limpiar la cookie no invalida un access token ya emitido.
+        authService.logout(request);
         String cookieHeader = cookieUtil.cleanRefreshTokenCookieHeader();
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookieHeader)
                 .body("Logout exitoso.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Introspección de tokens en lote para el API gateway y los servicios internos.
+     * Recibe un array JSON de access tokens y responde un array con un resultado por token, en el mismo orden
+     * ({@code active}, {@code sub}, {@code roles}, {@code exp}). La verificación se hace en paralelo en un pool
+     * propio y cada resultado se escribe en cuanto está listo, sin esperar al lote completo.
+     * Requiere un llamante autenticado con rol ADMIN (ver {@code SecurityConfig}).
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<StreamingResponseBody> introspect(@RequestBody List<String> tokens) {
+        Iterator<IntrospectionResultDTO> results = introspectionService.introspect(tokens).iterator();
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                while (results.hasNext()) {
+                    objectMapper.writeValue(generator, results.next());
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Publica las claves públicas de firma (JWKS) para que otros servicios verifiquen los tokens localmente.
+     * La respuesta es cacheable ({@code Cache-Control: public, max-age}) y lleva un ETag que cambia en cada
+     * rotación, así que un {@code If-None-Match} vigente recibe un 304 sin cuerpo.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks(WebRequest request, HttpServletResponse response) {
+        // Antes de checkNotModified: el 304 también debe llevar el max-age para que el cliente siga cacheando.
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(jwksMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().getHeaderValue());
+        String etag = signingKeys.jwksETag();
+        if (request.checkNotModified(etag)) {
+            return null; // Spring ya ha preparado el 304 Not Modified
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(signingKeys.jwks());
+    }
+}
@@ -2,13 +2,23 @@ package com.diver.autenticacion.Controllers;
 
 
 import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductFilterDTO;
 import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO;
+import com.diver.autenticacion.Dto.response.ProductPageDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.Services.ProductBulkService;
 import com.diver.autenticacion.Services.ProductService;
+import com.diver.autenticacion.enums.EProductSort;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,25 +29,68 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductBulkService productBulkService;
+
+    // El navegador guarda la respuesta pero la revalida siempre con If-None-Match (en lugar del no-store
+    // que pone Spring Security por defecto), así que un producto sin cambios vuelve como 304 sin cuerpo.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     /**
-     * Obtener todos los productos.
+     * Obtener una página del catálogo (paginación por cursor, sin OFFSET), opcionalmente filtrada.
      * Acceso: Cualquier usuario autenticado.
+     * @param minPrice Precio mínimo, incluido.
+     * @param maxPrice Precio máximo, incluido.
+     * @param name Comienzo del nombre, sin distinguir mayúsculas.
+     * @param description Texto que contiene la descripción (3 caracteres como mínimo), sin distinguir mayúsculas.
+     * Los filtros se repiten en cada página: el cursor solo guarda la posición y el orden.
+     * @param cursor El {@code nextCursor} de la página anterior; se omite en la primera.
+     * @param limit Productos por página ({@code products.page.defaultLimit} si se omite).
+     * @param sort Campo de orden: id, name o price. Solo en la primera página; luego lo fija el cursor.
+     * @param direction asc o desc. Solo en la primera página; luego lo fija el cursor.
+     * La respuesta lleva un ETag; con {@code If-None-Match} y la página sin cambios se responde 304 sin cuerpo.
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        return ResponseEntity.ok(productService.findAll());
+    public ResponseEntity<ProductPageDTO> getAllProducts(@RequestParam(required = false) Double minPrice,
+                                                         @RequestParam(required = false) Double maxPrice,
+                                                         @RequestParam(required = false) String name,
+                                                         @RequestParam(required = false) String description,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) String sort,
+                                                         @RequestParam(required = false) String direction,
+                                                         WebRequest request) {
+        // checkNotModified compara el ETag con If-None-Match, fija la cabecera ETag y, si coincide, el 304.
+        ProductPageDTO page = productService.findPage(new ProductFilterDTO(minPrice, maxPrice, name, description), cursor, limit,
+                sort != null ? EProductSort.from(sort) : null,
+                direction != null ? Sort.Direction.fromString(direction) : null,
+                request::checkNotModified);
+        return page == null ? null : ResponseEntity.ok().cacheControl(REVALIDATE).body(page);
+    }
+
+    /**
+     * Buscar productos por texto en el nombre y la descripción.
+     * Acceso: Cualquier usuario autenticado.
+     * @param q El texto buscado; no distingue mayúsculas ni tildes y admite palabras incompletas ("tecl mec").
+     * @param limit Número máximo de resultados ({@code products.search.defaultLimit} si se omite).
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ProductSearchHitDTO>> searchProducts(@RequestParam(required = false) String q,
+                                                                    @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.search(q, limit));
     }
 
     /**
      * Obtener un producto por su ID.
      * Acceso: Cualquier usuario autenticado.
+     * La respuesta lleva la versión como ETag; con {@code If-None-Match} y la misma versión se responde 304.
      */
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.findById(id));
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        ProductDTO product = productService.findById(id, request::checkNotModified);
+        return product == null ? null : ResponseEntity.ok().cacheControl(REVALIDATE).body(product);
     }
 
     /**
@@ -48,18 +101,24 @@ public class ProductController {
     @PreAuthorize("hasAnyRole('SUPERVISOR', 'ADMIN')")
     public ResponseEntity<ProductDTO> createProduct(@Valid @RequestBody ProductRequestDTO productRequestDTO) {
         ProductDTO savedProduct = productService.save(productRequestDTO);
-        return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(String.valueOf(savedProduct.getVersion()))
+                .body(savedProduct);
     }
 
     /**
      * Actualizar un producto existente.
      * Acceso: Solo SUPERVISOR y ADMIN.
+     * Con {@code If-Match} (el ETag leído) solo se actualiza si nadie lo modificó entretanto; si no, 412.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('SUPERVISOR', 'ADMIN')")
-    public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequestDTO productRequestDTO) {
-        ProductDTO updatedProduct = productService.update(id, productRequestDTO);
-        return ResponseEntity.ok(updatedProduct);
+    public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequestDTO productRequestDTO,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductDTO updatedProduct = productService.update(id, productRequestDTO, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(updatedProduct.getVersion()))
+                .body(updatedProduct);
     }
 
     /**
@@ -72,4 +131,27 @@ public class ProductController {
         productService.deleteById(id);
         return ResponseEntity.noContent().build(); // HTTP 204 No Content
     }
-}
\ No newline at end of file
+
+    /**
+     * Crear y actualizar productos en bloque (sincronización del catálogo).
+     * Acceso: Solo SUPERVISOR y ADMIN.
+     * Los elementos sin {@code id} se crean y los que lo traen se actualizan; cada uno se valida como en el alta
+     * y uno erróneo no detiene el resto. La respuesta trae el resultado de cada elemento, en el mismo orden.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('SUPERVISOR', 'ADMIN')")
+    public ResponseEntity<ProductBulkResultDTO> upsertProducts(@RequestBody List<ProductRequestDTO> products) {
+        return ResponseEntity.ok(productBulkService.upsert(products));
+    }
+
+    /**
+     * Eliminar productos en bloque.
+     * Acceso: Solo ADMIN.
+     * El cuerpo es la lista de ids; los que no existen se informan como {@code NOT_FOUND}.
+     */
+    @DeleteMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductBulkResultDTO> deleteProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productBulkService.delete(ids));
+    }
+}
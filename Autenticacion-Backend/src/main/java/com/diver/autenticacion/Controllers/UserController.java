@@ -1,15 +1,22 @@
 package com.diver.autenticacion.Controllers;
 
 import com.diver.autenticacion.Dto.UserDto;
+import com.diver.autenticacion.Dto.response.SessionDTO;
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.Services.RefreshTokenService;
 import com.diver.autenticacion.Services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,18 +24,45 @@ import java.security.Principal;
 public class UserController {
 
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Endpoint para que un usuario autenticado obtenga su propia información de perfil.
      * @PreAuthorize("isAuthenticated()") asegura que solo los usuarios logueados pueden acceder.
-     * @param principal Objeto inyectado por Spring Security que contiene los detalles del usuario autenticado.
+     * En modo stateless ({@code jwt.stateless=true}) la respuesta se construye solo con el token.
+     * @param currentUser Principal inyectado por Spring Security con los detalles del usuario autenticado.
      * @return El DTO del usuario actual.
      */
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<UserDto> getCurrentUser(Principal principal) {
-        // Principal.getName() devuelve el 'username' del token.
-        UserDto userDTO = userService.findUserByUsername(principal.getName());
+    public ResponseEntity<UserDto> getCurrentUser(@AuthenticationPrincipal CustomUserDetails currentUser) {
+        UserDto userDTO = userService.findCurrentUser(currentUser);
         return ResponseEntity.ok(userDTO);
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint para que un usuario vea sus sesiones abiertas (una por cada login / dispositivo).
+     * @param currentUser Principal del usuario autenticado.
+     * @return Las sesiones vigentes, la más reciente primero.
+     */
+    @GetMapping("/me/sessions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SessionDTO>> getMySessions(@AuthenticationPrincipal CustomUserDetails currentUser) {
+        return ResponseEntity.ok(refreshTokenService.findActiveSessions(currentUser.getId()));
+    }
+
+    /**
+     * Endpoint para cerrar una de las sesiones del usuario: su refresh token deja de servir.
+     * Los access tokens ya emitidos para esa sesión siguen siendo válidos hasta su expiración.
+     * @param currentUser Principal del usuario autenticado.
+     * @param sessionId El ID de la sesión a cerrar.
+     * @return 204 No Content si la sesión se cerró.
+     */
+    @DeleteMapping("/me/sessions/{sessionId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> revokeMySession(@AuthenticationPrincipal CustomUserDetails currentUser,
+                                                @PathVariable UUID sessionId) {
+        refreshTokenService.revokeSession(currentUser.getId(), sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
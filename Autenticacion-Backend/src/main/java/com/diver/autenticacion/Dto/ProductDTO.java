@@ -12,5 +12,6 @@ public class ProductDTO {
     private String name;
     private String description;
     private double price;
+    private long version;
 
 }
\ No newline at end of file
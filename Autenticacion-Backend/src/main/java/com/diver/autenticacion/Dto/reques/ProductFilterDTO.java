@@ -0,0 +1,11 @@
+package com.diver.autenticacion.Dto.reques;
+
+/**
+ * Filtros del catálogo ({@code GET /api/products}); los que son null no filtran.
+ * @param minPrice Precio mínimo, incluido.
+ * @param maxPrice Precio máximo, incluido.
+ * @param name Comienzo del nombre, sin distinguir mayúsculas.
+ * @param description Texto que debe contener la descripción, sin distinguir mayúsculas.
+ */
+public record ProductFilterDTO(Double minPrice, Double maxPrice, String name, String description) {
+}
@@ -0,0 +1,8 @@
+package com.diver.autenticacion.Dto.reques;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RevokeTokenRequestDTO(
+        @NotBlank(message = "El token es obligatorio.")
+        String token
+) {}
@@ -0,0 +1,23 @@
+package com.diver.autenticacion.Dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Resultado de introspección de un token (formato inspirado en RFC 7662).
+ * Para un token inactivo solo se incluye {@code active=false}.
+ * @param active true si la firma es válida, no ha expirado y no está revocado.
+ * @param sub El usuario (subject) del token.
+ * @param roles Los roles del usuario.
+ * @param exp Expiración en segundos desde epoch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResultDTO(
+        boolean active,
+        String sub,
+        List<String> roles,
+        Long exp
+) {
+    public static final IntrospectionResultDTO INACTIVE = new IntrospectionResultDTO(false, null, null, null);
+}
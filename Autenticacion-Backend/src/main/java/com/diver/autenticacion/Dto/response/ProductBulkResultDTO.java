@@ -0,0 +1,33 @@
+package com.diver.autenticacion.Dto.response;
+
+import java.util.List;
+
+/**
+ * Resultado de una carga masiva de productos ({@code POST} o {@code DELETE /api/products/bulk}).
+ * @param total Elementos recibidos.
+ * @param created Productos creados.
+ * @param updated Productos actualizados.
+ * @param deleted Productos eliminados.
+ * @param failed Elementos rechazados; el motivo está en su {@link ItemResult}.
+ * @param items Un resultado por elemento, en el orden de la petición.
+ */
+public record ProductBulkResultDTO(
+        long total,
+        long created,
+        long updated,
+        long deleted,
+        long failed,
+        List<ItemResult> items
+) {
+
+    public enum Status { CREATED, UPDATED, DELETED, INVALID, NOT_FOUND, CONFLICT, FAILED }
+
+    /**
+     * @param index Posición del elemento en la petición (empezando en 0).
+     * @param id El id del producto (el asignado, si se creó), o null si no se conoce.
+     * @param status Qué se hizo con el elemento.
+     * @param version La versión del producto tras crearlo o actualizarlo (su ETag), o null.
+     * @param message Motivo del rechazo, o null si se aplicó.
+     */
+    public record ItemResult(int index, Long id, Status status, Long version, String message) {}
+}
@@ -0,0 +1,18 @@
+package com.diver.autenticacion.Dto.response;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Una página del catálogo. {@code nextCursor} es opaco: se reenvía tal cual en {@code ?cursor=} para pedir
+ * la página siguiente y es {@code null} en la última.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPageDTO {
+    private List<ProductDTO> items;
+    private String nextCursor;
+}
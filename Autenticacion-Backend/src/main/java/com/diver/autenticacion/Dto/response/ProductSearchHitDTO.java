@@ -0,0 +1,16 @@
+package com.diver.autenticacion.Dto.response;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Un resultado de {@code GET /api/products/search}: el producto y su puntuación de relevancia (mayor es mejor;
+ * solo es comparable entre resultados de la misma búsqueda).
+ */
+@Data
+@AllArgsConstructor
+public class ProductSearchHitDTO {
+    private ProductDTO product;
+    private double score;
+}
@@ -0,0 +1,18 @@
+package com.diver.autenticacion.Dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Una sesión abierta (familia de refresh tokens) de un usuario.
+ */
+@Data
+@AllArgsConstructor
+public class SessionDTO {
+    private UUID id;
+    private Instant lastRefreshedAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,25 @@
+package com.diver.autenticacion.Dto.response;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de usuarios.
+ * @param total Filas de datos leídas (sin contar la cabecera CSV ni las líneas vacías).
+ * @param imported Usuarios creados.
+ * @param failed Filas rechazadas; el detalle de cada una está en {@code errors}.
+ * @param errors Errores por fila, en el orden del fichero.
+ */
+public record UserImportResultDTO(
+        long total,
+        long imported,
+        long failed,
+        List<RowError> errors
+) {
+
+    /**
+     * @param line Número de línea en el fichero (empezando en 1).
+     * @param username El usuario de la fila, si se pudo leer.
+     * @param message Motivo del rechazo.
+     */
+    public record RowError(long line, String username, String message) {}
+}
@@ -4,9 +4,14 @@ package com.diver.autenticacion.Exceptions;
 import com.diver.autenticacion.Dto.ErrorResponseDTO;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -125,6 +130,98 @@ public class GlobalExceptionHandler {
         return "Acceso denegado: no tienes permisos suficientes para realizar esta acción.";
     }
 
+    /**
+     * Maneja las actualizaciones condicionales ({@code If-Match}) sobre un recurso que ya cambió.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDTO> handlePreconditionFailedException(PreconditionFailedException ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                ex.getMessage()
+        );
+        log.warn("Precondición no cumplida: {}", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Maneja el conflicto del bloqueo optimista en una actualización sin {@code If-Match}: otra petición
+     * modificó el mismo registro a la vez y esta no lo sobrescribe.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.CONFLICT.value(),
+                "Error: El recurso fue modificado por otra petición; vuelve a cargarlo."
+        );
+        log.warn("Conflicto de bloqueo optimista: {}", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las peticiones rechazadas por exceso de carga (p. ej. la cola de hash de contraseñas llena).
+     * Devuelve 429 con Retry-After para que el cliente reintente más tarde.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooManyRequestsException(TooManyRequestsException ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage()
+        );
+        log.warn("Petición rechazada por exceso de carga: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja el agotamiento transitorio de un recurso interno (p. ej. la denylist de tokens llena).
+     * Devuelve 503 con Retry-After: el problema es del servidor, no de la petición.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage()
+        );
+        log.error("Recurso del servidor agotado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja el rechazo de un pool de hilos saturado (p. ej. el de introspección de tokens).
+     * Se responde enseguida con 503 y Retry-After en lugar de dejar la petición esperando.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTaskRejectedException(TaskRejectedException ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "El servidor está ocupado. Inténtalo de nuevo en unos segundos."
+        );
+        log.warn("Tarea rechazada por un pool saturado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja la falta de conexiones a la base de datos: el pool de Hikari no entregó una conexión dentro de
+     * {@code connection-timeout}. Con hilos virtuales no hay límite de peticiones concurrentes y el pool es
+     * el que limita; una petición que no consigue conexión responde 503 en lugar de esperar indefinidamente.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponseDTO> handleDatabaseUnavailable(Exception ex) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "El servidor está ocupado. Inténtalo de nuevo en unos segundos."
+        );
+        log.warn("Sin conexión disponible a la base de datos: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     /**
      * Captura genérica para cualquier otra excepción no manejada.
      * Es una salvaguarda para evitar exponer stack traces al cliente.
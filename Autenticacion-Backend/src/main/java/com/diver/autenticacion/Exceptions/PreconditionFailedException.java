@@ -0,0 +1,12 @@
+package com.diver.autenticacion.Exceptions;
+
+/**
+ * Excepción lanzada cuando la precondición de una petición condicional ({@code If-Match}) no se cumple:
+ * el recurso cambió desde que el cliente lo leyó. {@link GlobalExceptionHandler} la convierte en un
+ * 412 Precondition Failed.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.diver.autenticacion.Exceptions;
+
+import lombok.Getter;
+
+/**
+ * Excepción lanzada cuando un recurso interno del servidor se agota de forma transitoria (p. ej. la denylist de
+ * tokens llena). {@link GlobalExceptionHandler} la convierte en un 503 Service Unavailable con Retry-After.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Segundos que el cliente debería esperar antes de reintentar.
+     */
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.diver.autenticacion.Exceptions;
+
+import lombok.Getter;
+
+/**
+ * Excepción lanzada cuando el servidor rechaza una petición por exceso de carga.
+ * {@link GlobalExceptionHandler} la convierte en un 429 Too Many Requests con la cabecera Retry-After.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Segundos que el cliente debería esperar antes de reintentar.
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,27 @@
+package com.diver.autenticacion.Repository;
+
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.enums.EProductSort;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas de {@link ProductRepository} que se construyen a mano (ver {@link ProductRepositoryImpl}).
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Página del catálogo por keyset: los {@code limit} productos que siguen a la posición dada en el orden
+     * {@code (sort, id)}. No usa OFFSET, así que una página profunda cuesta lo mismo que la primera.
+     * @param filter Filtros de {@link ProductSpecifications}; la página solo contiene productos que los cumplen.
+     * @param sort Campo de orden.
+     * @param direction Dirección del orden (también para el id que desempata).
+     * @param afterValue Valor del campo de orden del último producto entregado; se ignora si {@code afterId} es null.
+     * @param afterId Id del último producto entregado, o {@code null} para la primera página.
+     * @param limit Número máximo de productos.
+     * @return Los productos, en orden.
+     */
+    List<Product> findPage(Specification<Product> filter, EProductSort sort, Sort.Direction direction, Object afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,88 @@
+package com.diver.autenticacion.Repository;
+
+import com.diver.autenticacion.config.HibernateCacheConfig;
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.enums.EProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de {@link ProductRepositoryCustom}.
+ * <p>
+ * La consulta se arma con la Criteria API para combinar los filtros ({@link ProductSpecifications}) con la
+ * condición de página. La Criteria API no tiene comparación de filas ({@code (name, id) > (?, ?)}), así que
+ * la condición se expande como {@code name >= ? AND (name > ? OR id > ?)}: el {@code >=} es redundante para
+ * el resultado, pero es el que PostgreSQL usa como límite del recorrido del índice {@code (name, id)}; con solo
+ * {@code name > ? OR (name = ? AND id > ?)} recorre el índice desde el principio filtrando, y el coste vuelve a
+ * crecer con la profundidad de la página.
+ * </p>
+ * Las páginas se guardan en la caché de consultas ({@link HibernateCacheConfig#PRODUCT_CATALOG_REGION}): solo
+ * los ids, los productos salen de la región de entidades. Cualquier escritura en {@code products} hecha a
+ * través de Hibernate invalida todas las páginas cacheadas.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPage(Specification<Product> filter, EProductSort sort, Sort.Direction direction,
+                                  Object afterValue, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        boolean ascending = direction.isAscending();
+
+        List<Predicate> conditions = new ArrayList<>(2);
+        Predicate filtered = filter.toPredicate(product, query, cb);
+        if (filtered != null) {
+            conditions.add(filtered);
+        }
+        Path<Long> id = product.get("id");
+        if (afterId != null) {
+            Predicate afterIdCondition = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            if (sort == EProductSort.ID) {
+                conditions.add(afterIdCondition);
+            } else {
+                // El campo sale del enum, nunca de la petición.
+                conditions.add(after(cb, product.get(sort.getProperty()), afterValue, ascending, afterIdCondition));
+            }
+        }
+        query.select(product).where(conditions.toArray(Predicate[]::new));
+
+        if (sort == EProductSort.ID) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<?> column = product.get(sort.getProperty());
+            query.orderBy(ascending ? cb.asc(column) : cb.desc(column), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, HibernateCacheConfig.PRODUCT_CATALOG_REGION)
+                .getResultList();
+    }
+
+    /**
+     * {@code column >= value AND (column > value OR id > afterId)} (o con {@code <=} y {@code <} en descendente).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Path column, Object value, boolean ascending, Predicate afterId) {
+        Comparable bound = (Comparable) value;
+        Predicate range = ascending ? cb.greaterThanOrEqualTo(column, bound) : cb.lessThanOrEqualTo(column, bound);
+        Predicate past = ascending ? cb.greaterThan(column, bound) : cb.lessThan(column, bound);
+        return cb.and(range, cb.or(past, afterId));
+    }
+}
@@ -0,0 +1,87 @@
+package com.diver.autenticacion.Repository;
+
+import com.diver.autenticacion.entities.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtros del catálogo ({@code GET /api/products}) como {@link Specification}s que se combinan con AND.
+ * <p>
+ * Cada forma de filtro tiene su índice en PostgreSQL ({@code db/products-indexes.sql}); las expresiones de
+ * aquí tienen que coincidir con las de los índices o PostgreSQL no los usa:
+ * </p>
+ * <ul>
+ *     <li>Rango de precio: {@code price >= ? / price <= ?}, sobre {@code idx_products_price_id}.</li>
+ *     <li>Prefijo del nombre: {@code lower(name) LIKE 'abc%'}, sobre {@code idx_products_name_trgm}.</li>
+ *     <li>Texto en la descripción: {@code lower(description) LIKE '%abc%'}, sobre {@code idx_products_description_trgm}.</li>
+ * </ul>
+ * Los índices de trigramas (GIN) y no los B-tree sirven el LIKE también con el patrón como parámetro, es decir,
+ * con los planes genéricos que PostgreSQL usa para las sentencias preparadas que se repiten.
+ */
+public final class ProductSpecifications {
+
+    /** Por debajo de un trigrama, el índice GIN no puede descartar nada y se recorre entero. */
+    public static final int MIN_CONTAINS_LENGTH = 3;
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * @param minPrice Precio mínimo (incluido), o null.
+     * @param maxPrice Precio máximo (incluido), o null.
+     * @param namePrefix Comienzo del nombre, sin distinguir mayúsculas, o null.
+     * @param descriptionContains Texto que contiene la descripción, sin distinguir mayúsculas, o null.
+     * @return Los filtros indicados combinados con AND (sin ninguno, todos los productos).
+     */
+    public static Specification<Product> filter(Double minPrice, Double maxPrice, String namePrefix, String descriptionContains) {
+        List<Specification<Product>> filters = new ArrayList<>(4);
+        if (minPrice != null) {
+            filters.add(priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(priceAtMost(maxPrice));
+        }
+        if (namePrefix != null) {
+            filters.add(nameStartsWith(namePrefix));
+        }
+        if (descriptionContains != null) {
+            filters.add(descriptionContains(descriptionContains));
+        }
+        return Specification.allOf(filters);
+    }
+
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Product> descriptionContains(String text) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("description")), "%" + escapeLike(text) + "%", LIKE_ESCAPE);
+    }
+
+    /**
+     * Pasa a minúsculas y escapa los comodines del texto del usuario: {@code "50%"} busca un 50%, no "50 y lo que siga".
+     */
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.diver.autenticacion.Repository;
+
+import com.diver.autenticacion.entities.RefreshToken;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Búsqueda por el índice único del hash, trayendo el usuario y sus roles en la misma consulta.
+     */
+    @EntityGraph(attributePaths = {"user", "user.roles"})
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marca el token como rotado solo si sigue activo. Devuelve 0 si otra petición se adelantó.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.rotatedAt = :now where t.id = :id and t.rotatedAt is null and t.revoked = false")
+    int markRotated(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.user.id = :userId and t.revoked = false")
+    int revokeFamilyOfUser(@Param("familyId") UUID familyId, @Param("userId") Long userId);
+
+    /**
+     * Token activo de cada familia (sesión) vigente del usuario.
+     */
+    @Query("select t from RefreshToken t where t.user.id = :userId and t.rotatedAt is null and t.revoked = false " +
+            "and t.expiresAt > :now order by t.createdAt desc")
+    List<RefreshToken> findActiveByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    @Query("select min(t.expiresAt) from RefreshToken t")
+    Instant findOldestExpiration();
+
+    /**
+     * Borra un lote de tokens que expiraron dentro del intervalo [from, to), recorriendo solo
+     * ese tramo del índice de expires_at. Cada lote va en su propia transacción.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "SELECT id FROM refresh_tokens WHERE expires_at >= :from AND expires_at < :to LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("from") Instant from, @Param("to") Instant to, @Param("limit") int limit);
+}
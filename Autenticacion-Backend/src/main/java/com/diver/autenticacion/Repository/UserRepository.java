@@ -2,6 +2,8 @@ package com.diver.autenticacion.Repository;
 
 import com.diver.autenticacion.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,9 +11,46 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Lo mínimo para autenticar a un usuario, sin entidad gestionada ni colección de roles.
+     * Los roles llegan como máscara de bits (ver {@link com.diver.autenticacion.enums.ERole#mask()}).
+     */
+    interface AuthView {
+        Long getId();
+        String getUsername();
+        String getPassword();
+        String getEmail();
+        Integer getRoleMask();
+    }
+
+    /**
+     * Bit de cada rol ({@code ERole.mask()}) a partir de {@code roles.name}, para sumarlo en las consultas
+     * nativas que devuelven la máscara de roles. Un rol nuevo en {@code ERole} necesita su línea aquí.
+     */
+    String ROLE_MASK_CASE = """
+            CASE r.name
+                WHEN 'ROLE_USER' THEN 1
+                WHEN 'ROLE_SUPERVISOR' THEN 2
+                WHEN 'ROLE_ADMIN' THEN 4
+                ELSE 0 END""";
+
     Optional <User> findByUsername(String username);
 
+    /**
+     * Carga los datos de autenticación en una sola consulta sobre el índice único de username.
+     * Solo lee las columnas que necesita, así que no cambia aunque {@link User} crezca.
+     */
+    @Query(value = "SELECT u.id AS id, u.username AS username, u.password AS password, u.email AS email,"
+            + " COALESCE(SUM(" + ROLE_MASK_CASE + "), 0) AS roleMask"
+            + " FROM users u"
+            + " LEFT JOIN users_roles ur ON ur.user_id = u.id"
+            + " LEFT JOIN roles r ON r.id = ur.role_id"
+            + " WHERE u.username = :username"
+            + " GROUP BY u.id, u.username, u.password, u.email",
+            nativeQuery = true)
+    Optional<AuthView> findAuthByUsername(@Param("username") String username);
+
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.diver.autenticacion.Security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCrypt con un coste elegido para este hardware.
+ * <p>
+ * {@link #calibrate(Duration, int, int)} mide cuánto tarda un hash en esta máquina y elige el coste más alto
+ * que no supera la latencia objetivo, así el coste de CPU de cada login se mantiene estable al cambiar de
+ * tipo de instancia. {@link #upgradeEncoding(String)} pide rehacer el hash solo si el coste guardado es menor
+ * que el actual: si dos instancias calibran costes distintos, los hashes únicamente suben de coste y nunca
+ * van y vienen entre ellas.
+ * </p>
+ * <p>
+ * Argon2 queda aplazado: {@code Argon2PasswordEncoder} necesita BouncyCastle, que el proyecto no incluye. Se
+ * añadiría como otro id del {@code DelegatingPasswordEncoder} sin tocar los hashes guardados.
+ * </p>
+ */
+@Slf4j
+@Getter
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "calibracion-bcrypt";
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Mide el hash con el coste mínimo y extrapola (cada punto de coste duplica el tiempo) para elegir
+     * el mayor coste dentro de la latencia objetivo. El resultado se comprueba con una medición real.
+     * @param target Latencia objetivo por hash.
+     * @param minStrength Coste mínimo aceptable, aunque supere el objetivo.
+     * @param maxStrength Coste máximo.
+     * @return El coste elegido, entre {@code minStrength} y {@code maxStrength}.
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        long baseNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) { // la primera medición incluye el calentamiento de la JVM
+            baseNanos = Math.min(baseNanos, measure(minStrength));
+        }
+        int strength = minStrength;
+        while (strength < maxStrength && baseNanos << (strength + 1 - minStrength) <= target.toNanos()) {
+            strength++;
+        }
+        long nanos = measure(strength);
+        if (nanos > target.toNanos() * 3 / 2 && strength > minStrength) {
+            strength--;
+            nanos = measure(strength);
+        }
+        log.info("✅ Coste de BCrypt calibrado: {} (~{} ms por hash, objetivo {} ms).",
+                strength, Duration.ofNanos(nanos).toMillis(), target.toMillis());
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Formato: $2a$NN$<salt+hash>; NN es el coste con dos dígitos.
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
@@ -1,40 +1,114 @@
 package com.diver.autenticacion.Security;
 
+import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.entities.Role;
 import com.diver.autenticacion.entities.User;
-import lombok.RequiredArgsConstructor;
+import com.diver.autenticacion.enums.ERole;
+import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
+/**
+ * Principal de Spring Security. Es una copia inmutable de los datos del usuario en el momento de cargarlo
+ * (no guarda la entidad JPA), con las authorities calculadas una sola vez en el constructor. Por eso puede
+ * vivir en la {@link com.diver.autenticacion.config.UserDetailsCache} y compartirse entre peticiones.
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Set<ERole> roles;
+    private final Set<GrantedAuthority> authorities;
+
+    /**
+     * true si el principal se construyó solo con los claims del access token (modo stateless),
+     * sin consultar la base de datos. En ese caso no hay contraseña disponible.
+     */
+    @Getter
+    private final boolean fromToken;
+
+    public CustomUserDetails(User user) {
+        this(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()), false);
+    }
+
+    private CustomUserDetails(Long id, String username, String email, String password,
+                              Collection<ERole> roles, boolean fromToken) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.roles = roles.isEmpty()
+                ? Set.of()
+                : Collections.unmodifiableSet(EnumSet.copyOf(roles));
+        // Authorities compartidas del RoleRegistry: no se crea ninguna por petición.
+        this.authorities = this.roles.stream()
+                .map(RoleRegistry::authority)
+                .collect(Collectors.toUnmodifiableSet());
+        this.fromToken = fromToken;
+    }
+
+    /**
+     * Construye un principal a partir de la proyección de autenticación, sin pasar por la entidad {@link User}.
+     */
+    public static CustomUserDetails fromAuthView(UserRepository.AuthView view) {
+        return new CustomUserDetails(view.getId(), view.getUsername(), view.getEmail(), view.getPassword(),
+                ERole.fromMask(view.getRoleMask()), false);
+    }
+
+    /**
+     * Construye un principal a partir de los claims de un access token ya verificado.
+     */
+    public static CustomUserDetails fromTokenClaims(Long id, String username, String email, Collection<String> roles) {
+        return new CustomUserDetails(id, username, email, null,
+                roles.stream().map(ERole::valueOf).toList(), true);
+    }
 
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles()
-                .stream()
-                .map( roles -> new SimpleGrantedAuthority( roles.getName().name()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
+    }
+
+    public Long getId() {
+        return id;
     }
 
     public String getEmail(){
-        return user.getEmail();
+        return email;
+    }
+
+    /**
+     * @return Un {@link User} nuevo con los datos del principal (sin contraseña). No está gestionado por JPA
+     * y no debe persistirse; sirve para mapearlo a DTO sin volver a la base de datos.
+     */
+    public User getUser() {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(email)
+                .roles(roles.stream()
+                        .map(Role::new)
+                        .collect(Collectors.toSet()))
+                .build();
     }
 
 
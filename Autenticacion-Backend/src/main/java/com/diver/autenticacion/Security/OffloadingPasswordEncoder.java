@@ -0,0 +1,122 @@
+package com.diver.autenticacion.Security;
+
+import com.diver.autenticacion.Exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link PasswordEncoder} que ejecuta el hash y la verificación de contraseñas en un pool propio.
+ * <p>
+ * BCrypt consume decenas de milisegundos de CPU por operación. Si se ejecuta en los hilos de Tomcat,
+ * una avalancha de logins acapara la CPU y deja sin servicio al resto de peticiones. Aquí el trabajo
+ * se limita a un pool del tamaño de los núcleos disponibles con una cola acotada: el hilo de la
+ * petición espera sin consumir CPU y, si la cola está llena, la operación se rechaza enseguida con
+ * {@link TooManyRequestsException} (429 + Retry-After) en lugar de encolarse sin límite.
+ * </p>
+ * Métricas publicadas:
+ * <ul>
+ *     <li>{@code password.hashing.queue.depth} y {@code password.hashing.active}: operaciones en cola y en curso.</li>
+ *     <li>{@code password.hashing.duration{operation=encode|matches}}: latencia del hash (sin la espera en cola).</li>
+ *     <li>{@code password.hashing.rejected}: operaciones rechazadas por la cola llena.</li>
+ * </ul>
+ */
+@Slf4j
+public class OffloadingPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    /**
+     * @param delegate El encoder que hace el trabajo real (p. ej. BCrypt).
+     * @param threads Hilos del pool; normalmente el número de núcleos.
+     * @param queueCapacity Operaciones que pueden esperar en cola antes de rechazar.
+     * @param retryAfterSeconds Valor de Retry-After cuando se rechaza una operación.
+     * @param registry Registro de métricas.
+     */
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                     long retryAfterSeconds, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Operaciones de hash de contraseñas esperando en cola")
+                .register(registry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hash de contraseñas en curso")
+                .register(registry);
+        this.encodeTimer = Timer.builder("password.hashing.duration").tag("operation", "encode").register(registry);
+        this.matchesTimer = Timer.builder("password.hashing.duration").tag("operation", "matches").register(registry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(registry);
+
+        log.info("✅ Hash de contraseñas en un pool de {} hilos (cola máxima: {}).", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return offload(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Solo inspecciona el prefijo del hash guardado; es barato y no necesita el pool.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T offload(Timer timer, Supplier<T> operation) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(operation));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException(
+                    "Demasiadas peticiones de autenticación en curso. Inténtalo de nuevo en unos segundos.",
+                    retryAfterSeconds);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se esperaba el hash de la contraseña.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error al calcular el hash de la contraseña.", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
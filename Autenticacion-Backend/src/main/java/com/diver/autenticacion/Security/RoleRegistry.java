@@ -0,0 +1,94 @@
+package com.diver.autenticacion.Security;
+
+import com.diver.autenticacion.Repository.RoleRepository;
+import com.diver.autenticacion.config.UserDetailsCache;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.enums.ERole;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro en memoria de los roles. {@link ERole} es un conjunto fijo, así que las filas de la tabla
+ * {@code roles} se cargan una vez al arrancar (ver {@link #refresh()}) y a partir de ahí asignar un rol
+ * no cuesta ninguna consulta.
+ * <p>
+ * Los {@link Role} que entrega no están gestionados por JPA: solo sirven como referencia (id + nombre)
+ * para las relaciones de {@code users_roles} y no deben modificarse.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+
+    /** Una única instancia de authority por rol, compartida por todos los principales. */
+    private static final Map<ERole, GrantedAuthority> AUTHORITIES = new EnumMap<>(ERole.class);
+
+    static {
+        for (ERole role : ERole.values()) {
+            AUTHORITIES.put(role, new SimpleGrantedAuthority(role.name()));
+        }
+    }
+
+    private final RoleRepository roleRepository;
+    private final UserDetailsCache userDetailsCache;
+
+    private volatile Map<ERole, Role> roles = Map.of();
+
+    // Lock y no synchronized: la recarga consulta la base de datos y, con hilos virtuales,
+    // bloquearse dentro de un synchronized fija el hilo a su carrier.
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * Recarga los roles desde la base de datos. Solo hace falta cuando cambian las filas de {@code roles}
+     * (al sembrarlas en el arranque, ver {@code DatabaseInitializer}).
+     */
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            Map<ERole, Role> loaded = new EnumMap<>(ERole.class);
+            for (Role role : roleRepository.findAll()) {
+                loaded.put(role.getName(), new Role(role.getId(), role.getName()));
+            }
+            this.roles = Collections.unmodifiableMap(loaded);
+            userDetailsCache.evictAll(); // los principales cacheados se construyeron con los roles anteriores
+            log.info("✅ Registro de roles cargado: {}", loaded.keySet());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * @param name El rol buscado.
+     * @return La referencia al rol, para asignarla a un usuario.
+     * @throws RuntimeException si el rol no existe en la base de datos.
+     */
+    public Role get(ERole name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            // Solo ocurre si se pide un rol antes de que el arranque haya terminado de sembrarlos.
+            refresh();
+            role = roles.get(name);
+        }
+        if (role == null) {
+            throw new RuntimeException("Error: El rol " + name.name() + " no fue encontrado en la base de datos.");
+        }
+        return role;
+    }
+
+    /**
+     * @param name El rol.
+     * @return La authority compartida de ese rol.
+     */
+    public static GrantedAuthority authority(ERole name) {
+        return AUTHORITIES.get(name);
+    }
+}
@@ -19,4 +19,16 @@ public interface AuthService {
 
     AuthResult refresh(HttpServletRequest request);
 
+    /**
+     * Cierra la sesión en el servidor: revoca el access token de la cabecera Authorization
+     * y la familia del refresh token de la cookie, si existen y siguen vigentes.
+     */
+    void logout(HttpServletRequest request);
+
+    /**
+     * Revoca un access token concreto hasta su expiración (acción de administrador).
+     * @throws IllegalArgumentException si el token no es válido o no tiene jti.
+     */
+    void revokeToken(String token);
+
 }
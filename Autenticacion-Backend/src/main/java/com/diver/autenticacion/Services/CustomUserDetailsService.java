@@ -2,23 +2,56 @@ package com.diver.autenticacion.Services;
 
 import com.diver.autenticacion.Repository.UserRepository;
 import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.config.UserDetailsCache;
 import com.diver.autenticacion.entities.User;
 import lombok.RequiredArgsConstructor; // Usa esta
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service; // Anota como Service
+import org.springframework.transaction.annotation.Transactional;
 
 @Service // <-- ¡Añadido!
 @RequiredArgsConstructor // <-- ¡Añadido!
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository; // <-- ¡Declarado como final!
+    private final UserDetailsCache userDetailsCache;
 
+    /**
+     * Carga el usuario desde la {@link UserDetailsCache}; solo consulta la base de datos si no está o caducó.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * Una sola consulta de solo lectura (id, username, hash, email y máscara de roles): sin entidad gestionada,
+     * sin colección de roles y sin snapshot para el dirty checking.
+     */
+    private CustomUserDetails loadFromDatabase(String username) {
+        UserRepository.AuthView view = userRepository.findAuthByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con el nombre: " + username));
-        return new CustomUserDetails(user); // Asumiendo que CustomUserDetails implementa UserDetails
+        return CustomUserDetails.fromAuthView(view);
+    }
+
+    /**
+     * Guarda el nuevo hash de la contraseña. Lo invoca {@code DaoAuthenticationProvider} tras un login
+     * correcto cuando el hash guardado no usa el algoritmo actual o tiene un coste menor que el configurado.
+     * @param user El usuario recién autenticado.
+     * @param newPassword La contraseña ya codificada con los parámetros actuales.
+     * @return Los detalles del usuario con el hash actualizado.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con el nombre: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        CustomUserDetails updated = new CustomUserDetails(userRepository.save(entity));
+        userDetailsCache.evict(user.getUsername());
+        return updated;
     }
-}
\ No newline at end of file
+}
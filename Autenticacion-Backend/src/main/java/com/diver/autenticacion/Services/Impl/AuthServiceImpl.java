@@ -5,13 +5,15 @@ import com.diver.autenticacion.Dto.reques.LoginRequestDTO;
 import com.diver.autenticacion.Dto.reques.RegisterRequestDTO;
 import com.diver.autenticacion.Dto.response.AuthResponseDTO;
 import com.diver.autenticacion.Exceptions.TokenRefreshException;
-import com.diver.autenticacion.Repository.RoleRepository;
 import com.diver.autenticacion.Repository.UserRepository;
 import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.Security.RoleRegistry;
 import com.diver.autenticacion.Services.AuthService;
 import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Services.RefreshTokenService;
 import com.diver.autenticacion.config.CookieUtil;
 import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
 
 import com.diver.autenticacion.entities.Role;
 import com.diver.autenticacion.entities.User;
@@ -19,12 +21,17 @@ import com.diver.autenticacion.entities.User;
 import com.diver.autenticacion.enums.ERole;
 import com.diver.autenticacion.mapper.UserMapper;
 
+import io.jsonwebtoken.JwtException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -33,6 +40,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -42,29 +50,27 @@ import java.util.stream.Collectors;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
     private final UserMapper userMapper;
-    private final CustomUserDetailsService userDetailsService;
     private final CookieUtil cookieUtil;
+    private final TokenDenylist tokenDenylist;
+    private final RefreshTokenService refreshTokenService;
+    private final CustomUserDetailsService customUserDetailsService;
 
+    // Las mismas comprobaciones de cuenta (bloqueada, deshabilitada, expirada) que hace el login.
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    /**
+     * Sin transacción propia, como {@link #login}: el hash de la contraseña espera en el pool acotado de hash
+     * y no debe retener mientras tanto una conexión del pool de la base de datos. Se calcula primero y el alta
+     * ({@code saveAndFlush}) abre su propia transacción, corta.
+     */
     @Override
-    @Transactional
     public UserDto register(RegisterRequestDTO registerRequest) {
-        // ... (Lógica de registro sin cambios, como la teníamos en la versión final)
         log.info("Iniciando registro para el usuario: {}", registerRequest.getUsername());
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new IllegalArgumentException("Error: El nombre de usuario ya está en uso.");
-        }
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new IllegalArgumentException("Error: El email ya está en uso.");
-        }
-        User user = new User();
-        user.setUsername(registerRequest.getUsername());
-        user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
 
         ERole userRoleEnum;
         if (registerRequest.getRole() != null && !registerRequest.getRole().isBlank()) {
@@ -79,18 +85,53 @@ public class AuthServiceImpl implements AuthService {
         } else {
             userRoleEnum = ERole.ROLE_USER;
         }
+        String encodedPassword = passwordEncoder.encode(registerRequest.getPassword());
 
-        Role userRole = roleRepository.findByName(userRoleEnum)
-                .orElseThrow(() -> new RuntimeException("Error: El rol " + userRoleEnum.name() + " no fue encontrado en la base de datos."));
+        User user = new User();
+        user.setUsername(registerRequest.getUsername());
+        user.setEmail(registerRequest.getEmail());
+        user.setPassword(encodedPassword);
+        user.setRoles(Set.of(roleRegistry.get(userRoleEnum)));
 
-        user.setRoles(Set.of(userRole));
-        User savedUser = userRepository.save(user);
+        // Sin comprobaciones previas: insertamos directamente y dejamos que las restricciones únicas
+        // de username/email decidan. Así no hay carrera entre dos registros simultáneos con el mismo nombre.
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e);
+        }
         log.info("Usuario {} registrado exitosamente con el rol {}", savedUser.getUsername(), userRoleEnum.name());
         return userMapper.toUserDTO(savedUser);
     }
 
+    /**
+     * Traduce la violación de una restricción única a los mensajes de error de siempre.
+     * Se identifica por el nombre de la restricción o, si la base de datos tiene otra con nombre
+     * generado (tablas creadas antes de nombrarlas), por la columna que aparece en el mensaje.
+     */
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        // El mensaje del driver también nombra la restricción o la columna cuando el dialecto no extrae el nombre.
+        String detail = (constraint + " " + e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.UK_USERNAME) || detail.contains("(username)")) {
+            return new IllegalArgumentException("Error: El nombre de usuario ya está en uso.");
+        }
+        if (detail.contains(User.UK_EMAIL) || detail.contains("(email)")) {
+            return new IllegalArgumentException("Error: El email ya está en uso.");
+        }
+        return e;
+    }
+
+    /**
+     * Sin transacción propia: la verificación de la contraseña espera en el pool acotado de hash y no debe
+     * retener mientras tanto una conexión del pool de la base de datos. Cada escritura abre la suya, corta:
+     * el rehash de la contraseña ({@link com.diver.autenticacion.Services.CustomUserDetailsService#updatePassword})
+     * y el alta del refresh token ({@link RefreshTokenService#issue}).
+     */
     @Override
-    @Transactional(readOnly = true)
     public AuthResult login(LoginRequestDTO loginRequest) {
         // Registra el intento de autenticación para el usuario especificado.
         log.info("Intentando autenticar al usuario: {}", loginRequest.getUsername());
@@ -113,9 +154,9 @@ public class AuthServiceImpl implements AuthService {
         // Genera un token de acceso JWT para el usuario autenticado.
         // Este token se utilizará para futuras solicitudes autenticadas.
         String accessToken = jwtUtils.generateToken(authentication);
-        // Genera un refresh token JWT.
+        // Abre una nueva sesión (familia de refresh tokens) y obtiene su refresh token opaco.
         // Este token se utilizará para obtener nuevos tokens de acceso sin necesidad de reautenticación.
-        String refreshToken = jwtUtils.generateRefreshToken(authentication);
+        String refreshToken = refreshTokenService.issue(userDetails.getId());
 
         // Extrae los roles (autoridades) del usuario autenticado y los convierte en un conjunto de cadenas.
         Set<String> roles = userDetails.getAuthorities().stream()
@@ -138,7 +179,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(noRollbackFor = TokenRefreshException.class) // la revocación por reutilización debe persistir
     public AuthResult refresh(HttpServletRequest request) {
 
         String requestRefreshToken = cookieUtil.readRefreshTokenCookie(request);
@@ -149,21 +190,13 @@ public class AuthServiceImpl implements AuthService {
 
         log.info("Intentando refrescar token desde cookie.");
 
-        if (!jwtUtils.validateToken(requestRefreshToken)) {
-            throw new TokenRefreshException(requestRefreshToken, "Refresh token en cookie es inválido, expirado o malformado.");
-        }
-
-        String username = jwtUtils.extractUsername(requestRefreshToken);
-        UserDetails userDetails;
+        // Una búsqueda por índice y una actualización: el token presentado queda rotado y recibimos el siguiente.
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(requestRefreshToken);
+        CustomUserDetails userDetails = loadValidPrincipal(rotation);
+        String username = userDetails.getUsername();
 
-        try {
-            userDetails = this.userDetailsService.loadUserByUsername(username);
-        } catch (Exception e) {
-            throw new TokenRefreshException(requestRefreshToken, "El usuario asociado al token ya no es válido.");
-        }
-
-        String newAccessToken = jwtUtils.generateTokenFromUsername(userDetails.getUsername());
-        String newRefreshToken = jwtUtils.generateRefreshTokenFromUsername(userDetails.getUsername());
+        String newAccessToken = jwtUtils.generateTokenFromUserDetails(userDetails);
+        String newRefreshToken = rotation.refreshToken();
 
         Set<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -172,11 +205,64 @@ public class AuthServiceImpl implements AuthService {
         AuthResponseDTO authResponse = new AuthResponseDTO(
                 newAccessToken,
                 userDetails.getUsername(),
-                ((CustomUserDetails) userDetails).getEmail(),
+                userDetails.getEmail(),
                 roles
         );
 
         log.info("Tokens refrescados exitosamente para el usuario: {}", username);
         return new AuthResult(authResponse, newRefreshToken);
     }
-}
\ No newline at end of file
+
+    /**
+     * Carga el principal del dueño de la sesión como lo hace el login: el usuario debe seguir existiendo y su
+     * cuenta estar activa. Si no, la sesión se cierra revocando la familia del token recién emitido.
+     */
+    private CustomUserDetails loadValidPrincipal(RefreshTokenService.Rotation rotation) {
+        try {
+            UserDetails loaded = customUserDetailsService.loadUserByUsername(rotation.user().getUsername());
+            accountStatusChecker.check(loaded);
+            return (CustomUserDetails) loaded;
+        } catch (AuthenticationException e) {
+            refreshTokenService.revokeFamily(rotation.refreshToken());
+            throw new TokenRefreshException(null, "El usuario asociado al token ya no es válido.");
+        }
+    }
+
+    @Override
+    public void logout(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            revokeIfValid(authHeader.substring(7));
+        }
+        String refreshToken = cookieUtil.readRefreshTokenCookie(request);
+        if (refreshToken != null) {
+            refreshTokenService.revokeFamily(refreshToken);
+        }
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        JwtUtils.VerifiedToken verified;
+        try {
+            verified = jwtUtils.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: El token no es válido o ya ha expirado.");
+        }
+        if (verified.id() == null) {
+            throw new IllegalArgumentException("Error: El token no tiene identificador (jti) y no puede revocarse.");
+        }
+        tokenDenylist.revoke(verified.id(), verified.expiration().getTime());
+    }
+
+    // En el logout un token inválido o expirado no es un error: ya no sirve para autenticar.
+    private void revokeIfValid(String token) {
+        try {
+            JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
+            if (verified.id() != null) {
+                tokenDenylist.revoke(verified.id(), verified.expiration().getTime());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token no revocado en el logout porque ya no es válido: {}", e.getMessage());
+        }
+    }
+}
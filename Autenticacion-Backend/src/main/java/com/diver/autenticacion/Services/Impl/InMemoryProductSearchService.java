@@ -0,0 +1,77 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.Repository.ProductRepository;
+import com.diver.autenticacion.Services.ProductSearchService;
+import com.diver.autenticacion.config.ProductSearchIndex;
+import com.diver.autenticacion.mapper.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Búsqueda con un {@link ProductSearchIndex} en memoria (modo por defecto).
+ * <p>
+ * El índice se construye al arrancar, con los productos que haya en la base de datos, y después se mantiene
+ * con cada alta, modificación y baja hecha por {@link ProductServiceImpl}, al confirmarse su transacción: una
+ * transacción que se deshace no deja rastro en el índice. Un cambio hecho directamente en la base de datos
+ * no se ve hasta el siguiente arranque.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "products.search.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductSearchService implements ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * Tras los {@code CommandLineRunner}, para que los productos de ejemplo ya estén insertados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.nanoTime();
+        index.rebuild(() -> productMapper.toProductDTOList(productRepository.findAll()));
+        log.info("✅ Índice de búsqueda de productos construido: {} productos en {} ms.",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    @Override
+    public void productSaved(ProductDTO product) {
+        afterCommit(() -> index.put(product));
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        afterCommit(() -> index.remove(id));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.Services.ProductSearchService;
+import com.diver.autenticacion.config.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda con el texto completo de PostgreSQL ({@code products.search.mode=postgres}), para cuando hay
+ * varias instancias de la aplicación o el catálogo no cabe cómodamente en memoria.
+ * <p>
+ * Al arrancar crea (si no existen) la función {@code products_search_document}, que arma el
+ * {@code tsvector} del producto con el nombre como peso A y la descripción como B, y un índice GIN sobre
+ * ella. Las tildes se quitan con {@code translate()} y no con la extensión {@code unaccent}, que necesita
+ * permisos de superusuario para instalarse y no es {@code IMMUTABLE} (no admite índice). El índice lo mantiene
+ * la base de datos, así que {@link #productSaved} y {@link #productDeleted} no hacen nada.
+ * </p>
+ * Los términos de la búsqueda se normalizan con {@link ProductSearchIndex#tokenize(String)}, igual que en el
+ * modo en memoria, y se buscan como prefijos ({@code :*}) combinados con AND. El orden es el de
+ * {@code ts_rank}, no BM25: los resultados coinciden con los del modo en memoria, pero no siempre su orden.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "products.search.mode", havingValue = "postgres")
+public class PostgresProductSearchService implements ProductSearchService {
+
+    private static final String FOLD_FROM = "áàäâãéèëêíìïîóòöôõúùüûñç";
+    private static final String FOLD_TO = "aaaaaeeeeiiiiooooouuuunc";
+
+    private static final String SQL_CREATE_FUNCTION = """
+            CREATE OR REPLACE FUNCTION products_search_document(name text, description text)
+            RETURNS tsvector LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+                SELECT setweight(to_tsvector('simple'::regconfig, translate(lower(coalesce(name, '')), '%1$s', '%2$s')), 'A')
+                    || setweight(to_tsvector('simple'::regconfig, translate(lower(coalesce(description, '')), '%1$s', '%2$s')), 'B')
+            $$""".formatted(FOLD_FROM, FOLD_TO);
+    private static final String SQL_CREATE_INDEX = "CREATE INDEX IF NOT EXISTS idx_products_search"
+            + " ON products USING gin (products_search_document(name, description))";
+    // La expresión del WHERE tiene que ser idéntica a la del índice para que PostgreSQL lo use.
+    private static final String SQL_SEARCH = "SELECT p.id, p.name, p.description, p.price, p.version,"
+            + " ts_rank(products_search_document(p.name, p.description), q) AS score"
+            + " FROM products p, to_tsquery('simple', ?) q"
+            + " WHERE products_search_document(p.name, p.description) @@ q"
+            + " ORDER BY score DESC, p.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        jdbcTemplate.execute(SQL_CREATE_FUNCTION);
+        jdbcTemplate.execute(SQL_CREATE_INDEX);
+        log.info("✅ Búsqueda de productos en PostgreSQL: índice GIN idx_products_search preparado.");
+    }
+
+    @Override
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        List<String> terms = ProductSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        // Los términos solo tienen letras y dígitos: no pueden alterar la sintaxis de to_tsquery.
+        // Con una sola letra no se busca como prefijo, igual que en el índice en memoria.
+        String tsQuery = terms.stream().distinct()
+                .map(term -> term.length() < 2 ? term : term + ":*")
+                .collect(Collectors.joining(" & "));
+        return jdbcTemplate.query(SQL_SEARCH, (rs, rowNum) -> new ProductSearchHitDTO(
+                ProductDTO.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .description(rs.getString("description"))
+                        .price(rs.getDouble("price"))
+                        .version(rs.getLong("version"))
+                        .build(),
+                rs.getDouble("score")), tsQuery, limit);
+    }
+
+    @Override
+    public void productSaved(ProductDTO product) {
+        // El índice GIN se actualiza con la propia fila.
+    }
+
+    @Override
+    public void productDeleted(Long id) {
+        // El índice GIN se actualiza con la propia fila.
+    }
+}
@@ -0,0 +1,381 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO.ItemResult;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO.Status;
+import com.diver.autenticacion.Services.ProductBulkService;
+import com.diver.autenticacion.Services.ProductSearchService;
+import com.diver.autenticacion.entities.Product;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Carga masiva de productos.
+ * <p>
+ * Igual que la importación de usuarios, se evita JPA: cada bloque de {@code products.bulk.chunkSize} elementos
+ * se escribe con batches JDBC ({@code INSERT}, {@code UPDATE} o {@code DELETE}) en una sola transacción, y los
+ * ids de los productos nuevos se reservan de una vez en la secuencia de la columna identity. Por bloque hay
+ * una sola lectura previa: las versiones actuales de los productos que se actualizan.
+ * </p>
+ * <p>
+ * Como las escrituras no pasan por Hibernate, cada bloque hace a mano con la caché de segundo nivel lo que
+ * Hibernate haría con las suyas (ver {@link #lockCacheUntilCompletion}), y se avisa al índice de búsqueda.
+ * </p>
+ * Si el batch de un bloque falla, el bloque se reintenta elemento a elemento para aislar los culpables.
+ */
+@Slf4j
+@Service
+public class ProductBulkServiceImpl implements ProductBulkService {
+
+    private static final String SQL_NEXT_IDS =
+            "SELECT nextval(pg_get_serial_sequence('products', 'id')) FROM generate_series(1, ?)";
+    private static final String SQL_INSERT =
+            "INSERT INTO products (id, name, description, price, version) VALUES (?, ?, ?, ?, 0)";
+    // Con la versión leída en el WHERE: si otra petición modifica el producto entretanto, no se pisa su cambio.
+    private static final String SQL_UPDATE =
+            "UPDATE products SET name = ?, description = ?, price = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String SQL_DELETE = "DELETE FROM products WHERE id = ?";
+    private static final String SQL_VERSIONS = "SELECT id, version FROM products WHERE id IN (:ids)";
+
+    private static final String MSG_NOT_FOUND = "Error: Producto no encontrado.";
+    private static final String MSG_CONFLICT = "Error: El producto fue modificado por otra petición durante la carga; vuelve a enviarlo.";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ProductSearchService productSearchService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${products.bulk.chunkSize:500}")
+    private int chunkSize;
+
+    @Value("${products.bulk.maxItems:10000}")
+    private int maxItems;
+
+    public ProductBulkServiceImpl(JdbcTemplate jdbcTemplate,
+                                  NamedParameterJdbcTemplate namedJdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  Validator validator,
+                                  ProductSearchService productSearchService,
+                                  EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.productSearchService = productSearchService;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /** Elemento ya validado, pendiente de escribir. */
+    private record Row(int index, Long id, String name, String description, double price) {}
+
+    /** Resultados de una carga en curso. */
+    private static final class Job {
+        private final ItemResult[] results;
+        private long created;
+        private long updated;
+        private long deleted;
+        private long failed;
+
+        Job(int total) {
+            results = new ItemResult[total];
+        }
+
+        void record(ItemResult result) {
+            results[result.index()] = result;
+            switch (result.status()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case DELETED -> deleted++;
+                default -> failed++;
+            }
+        }
+
+        void reject(int index, Long id, Status status, String message) {
+            record(new ItemResult(index, id, status, null, message));
+        }
+
+        ProductBulkResultDTO toResult() {
+            return new ProductBulkResultDTO(results.length, created, updated, deleted, failed, List.of(results));
+        }
+    }
+
+    @Override
+    public ProductBulkResultDTO upsert(List<ProductRequestDTO> products) {
+        checkSize(products);
+        long start = System.currentTimeMillis();
+        Job job = new Job(products.size());
+        Set<Long> seenIds = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < products.size(); i++) {
+            ProductRequestDTO product = products.get(i);
+            if (product == null) {
+                job.reject(i, null, Status.INVALID, "Error: El elemento está vacío.");
+                continue;
+            }
+            Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                job.reject(i, product.getId(), Status.INVALID, violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" ")));
+                continue;
+            }
+            if (product.getId() != null && !seenIds.add(product.getId())) {
+                job.reject(i, product.getId(), Status.INVALID, "Error: El id está repetido en la petición.");
+                continue;
+            }
+            chunk.add(new Row(i, product.getId(), product.getName(), product.getDescription(), product.getPrice()));
+            if (chunk.size() >= chunkSize) {
+                upsertChunk(chunk, job);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            upsertChunk(chunk, job);
+        }
+
+        log.info("📦 Carga masiva de productos terminada en {} ms: {} elementos, {} creados, {} actualizados, {} rechazados.",
+                System.currentTimeMillis() - start, products.size(), job.created, job.updated, job.failed);
+        return job.toResult();
+    }
+
+    @Override
+    public ProductBulkResultDTO delete(List<Long> ids) {
+        checkSize(ids);
+        long start = System.currentTimeMillis();
+        Job job = new Job(ids.size());
+        Set<Long> seenIds = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null || !seenIds.add(id)) {
+                job.reject(i, id, Status.INVALID, id == null
+                        ? "Error: El elemento está vacío."
+                        : "Error: El id está repetido en la petición.");
+                continue;
+            }
+            chunk.add(new Row(i, id, null, null, 0));
+            if (chunk.size() >= chunkSize) {
+                deleteChunk(chunk, job);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            deleteChunk(chunk, job);
+        }
+
+        log.info("📦 Borrado masivo de productos terminado en {} ms: {} elementos, {} eliminados, {} rechazados.",
+                System.currentTimeMillis() - start, ids.size(), job.deleted, job.failed);
+        return job.toResult();
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            throw new IllegalArgumentException("Error: La petición debe tener entre 1 y " + maxItems + " elementos.");
+        }
+    }
+
+    private void upsertChunk(List<Row> chunk, Job job) {
+        List<Long> updateIds = chunk.stream().map(Row::id).filter(Objects::nonNull).toList();
+        Map<Long, Long> versions = currentVersions(updateIds);
+
+        List<Row> rows = new ArrayList<>(chunk.size());
+        int inserts = 0;
+        for (Row row : chunk) {
+            if (row.id() != null && !versions.containsKey(row.id())) {
+                job.reject(row.index(), row.id(), Status.NOT_FOUND, MSG_NOT_FOUND);
+            } else {
+                rows.add(row);
+                if (row.id() == null) {
+                    inserts++;
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Long> newIds = inserts == 0 ? List.of() : jdbcTemplate.queryForList(SQL_NEXT_IDS, Long.class, inserts);
+
+        try {
+            transactionTemplate.execute(status -> upsertRows(rows, newIds, versions))
+                    .forEach(job::record);
+        } catch (DataAccessException e) {
+            log.warn("El batch de {} productos falló ({}); se reintenta uno a uno.", rows.size(), e.getMostSpecificCause().getMessage());
+            int nextId = 0;
+            for (Row row : rows) {
+                List<Long> singleId = row.id() == null ? List.of(newIds.get(nextId++)) : List.of();
+                try {
+                    transactionTemplate.execute(status -> upsertRows(List.of(row), singleId, versions)).forEach(job::record);
+                } catch (DataAccessException rowError) {
+                    job.reject(row.index(), row.id(), Status.FAILED, "Error: No se pudo guardar el producto.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe los elementos dentro de la transacción en curso.
+     * @param newIds Un id reservado por cada elemento sin id, en el mismo orden.
+     * @return El resultado de cada elemento; solo vale si la transacción se confirma.
+     */
+    private List<ItemResult> upsertRows(List<Row> rows, List<Long> newIds, Map<Long, Long> versions) {
+        List<Object[]> insertArgs = new ArrayList<>();
+        List<Object[]> updateArgs = new ArrayList<>();
+        List<Row> inserted = new ArrayList<>();
+        List<Row> updated = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.id() == null) {
+                Long id = newIds.get(inserted.size());
+                insertArgs.add(new Object[]{id, row.name(), row.description(), row.price()});
+                inserted.add(new Row(row.index(), id, row.name(), row.description(), row.price()));
+            } else {
+                updateArgs.add(new Object[]{row.name(), row.description(), row.price(), row.id(), versions.get(row.id())});
+                updated.add(row);
+            }
+        }
+
+        lockCacheUntilCompletion(updated.stream().map(Row::id).toList(), versions);
+        List<ItemResult> results = new ArrayList<>(rows.size());
+        if (!insertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERT, insertArgs);
+            for (Row row : inserted) {
+                results.add(saved(row, Status.CREATED, 0));
+            }
+        }
+        if (!updateArgs.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(SQL_UPDATE, updateArgs);
+            for (int i = 0; i < updated.size(); i++) {
+                Row row = updated.get(i);
+                if (counts[i] == 0) { // cambió de versión (o se borró) desde la lectura de currentVersions
+                    results.add(new ItemResult(row.index(), row.id(), Status.CONFLICT, null, MSG_CONFLICT));
+                } else {
+                    results.add(saved(row, Status.UPDATED, versions.get(row.id()) + 1));
+                }
+            }
+        }
+        return results;
+    }
+
+    private ItemResult saved(Row row, Status status, long version) {
+        productSearchService.productSaved(ProductDTO.builder()
+                .id(row.id())
+                .name(row.name())
+                .description(row.description())
+                .price(row.price())
+                .version(version)
+                .build());
+        return new ItemResult(row.index(), row.id(), status, version, null);
+    }
+
+    private void deleteChunk(List<Row> chunk, Job job) {
+        try {
+            transactionTemplate.execute(status -> deleteRows(chunk)).forEach(job::record);
+        } catch (DataAccessException e) {
+            log.warn("El batch de borrado de {} productos falló ({}); se reintenta uno a uno.", chunk.size(), e.getMostSpecificCause().getMessage());
+            for (Row row : chunk) {
+                try {
+                    transactionTemplate.execute(status -> deleteRows(List.of(row))).forEach(job::record);
+                } catch (DataAccessException rowError) {
+                    job.reject(row.index(), row.id(), Status.FAILED, "Error: No se pudo eliminar el producto.");
+                }
+            }
+        }
+    }
+
+    private List<ItemResult> deleteRows(List<Row> rows) {
+        lockCacheUntilCompletion(rows.stream().map(Row::id).toList(), Map.of());
+        int[] counts = jdbcTemplate.batchUpdate(SQL_DELETE, rows.stream().map(row -> new Object[]{row.id()}).toList());
+        List<ItemResult> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            // 0 filas: otra petición lo borró antes. Un valor negativo (SUCCESS_NO_INFO) es un éxito sin recuento.
+            if (counts[i] == 0) {
+                results.add(new ItemResult(row.index(), row.id(), Status.NOT_FOUND, null, MSG_NOT_FOUND));
+            } else {
+                results.add(new ItemResult(row.index(), row.id(), Status.DELETED, null, null));
+                productSearchService.productDeleted(row.id());
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, Long> currentVersions(List<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (!ids.isEmpty()) {
+            namedJdbcTemplate.query(SQL_VERSIONS, Map.of("ids", ids),
+                    rs -> { versions.put(rs.getLong("id"), rs.getLong("version")); });
+        }
+        return versions;
+    }
+
+    /**
+     * Lo mismo que hace Hibernate con la caché de segundo nivel al escribir él un producto, para escrituras JDBC
+     * que no ve. Antes de escribir, un soft lock sobre cada producto afectado y la tabla marcada como en
+     * modificación para la caché de consultas; al terminar la transacción, se confirme o no, se liberan los
+     * bloqueos y se invalidan las consultas sobre {@code products}.
+     * <p>
+     * Desalojar solo al confirmar no basta: una lectura concurrente que leyó la fila antes del commit puede
+     * guardar el producto o la página antiguos justo después del desalojo. Con el bloqueo, Hibernate no guarda
+     * nada leído por una transacción que empezó antes de liberarlo, y descarta las páginas cacheadas antes de
+     * la invalidación.
+     * </p>
+     * @param ids Los productos que se van a actualizar o borrar (los nuevos aún no están en la caché).
+     * @param versions La versión leída de cada producto, si se conoce.
+     */
+    private void lockCacheUntilCompletion(Collection<Long> ids, Map<Long, Long> versions) {
+        SharedSessionContractImplementor session = EntityManagerFactoryUtils
+                .getTransactionalEntityManager(entityManagerFactory)
+                .unwrap(SharedSessionContractImplementor.class);
+        SessionFactoryImplementor sessionFactory = session.getFactory();
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(Product.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+        String[] spaces = persister.getPropertySpaces();
+
+        timestamps.preInvalidate(spaces, session);
+        Map<Object, SoftLock> locks = new HashMap<>();
+        if (cache != null) {
+            for (Long id : ids) {
+                Object key = cache.generateCacheKey(id, persister, sessionFactory, null);
+                locks.put(key, cache.lockItem(session, key, versions.get(id)));
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.forEach((key, lock) -> cache.unlockItem(session, key, lock));
+                timestamps.invalidate(spaces, session);
+            }
+        });
+    }
+}
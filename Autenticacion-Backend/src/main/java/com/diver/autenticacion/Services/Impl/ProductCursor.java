@@ -0,0 +1,44 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.enums.EProductSort;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición en el catálogo: el último producto entregado (su id y el valor del campo de orden) junto con
+ * el orden de la consulta. Viaja al cliente como Base64 URL-safe de {@code campo|dirección|id|valor}; el
+ * valor va al final porque un nombre puede contener {@code |}.
+ */
+record ProductCursor(EProductSort sort, Sort.Direction direction, long id, Object value) {
+
+    private static final String INVALID = "Error: Cursor de paginación inválido.";
+
+    String encode() {
+        String raw = sort.name() + "|" + direction.name() + "|" + id + "|" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor El cursor recibido del cliente.
+     * @return La posición que representa.
+     * @throws IllegalArgumentException si el cursor no es uno emitido por {@link #encode()}.
+     */
+    static ProductCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            EProductSort sort = EProductSort.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            long id = Long.parseLong(parts[2]);
+            Object value = switch (sort) {
+                case ID -> null;
+                case NAME -> parts[3];
+                case PRICE -> Double.parseDouble(parts[3]);
+            };
+            return new ProductCursor(sort, direction, id, value);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+}
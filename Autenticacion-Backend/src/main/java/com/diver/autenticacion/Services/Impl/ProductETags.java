@@ -0,0 +1,55 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.entities.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * ETags fuertes de los productos. El de un producto es su versión; el de una página del catálogo, un hash de
+ * los ids y versiones que contiene y de su cursor siguiente, así que cambia si cambia cualquier producto de
+ * la página o si entra o sale alguno.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String of(Product product) {
+        return "\"" + product.getVersion() + "\"";
+    }
+
+    static String ofPage(List<Product> products, String nextCursor) {
+        StringBuilder state = new StringBuilder(products.size() * 8);
+        for (Product product : products) {
+            state.append(product.getId()).append(':').append(product.getVersion()).append(',');
+        }
+        state.append(nextCursor);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(state.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Comparación fuerte de {@code If-Match} (RFC 9110): {@code *} o alguno de los ETags de la lista; un ETag
+     * débil ({@code W/"..."}) nunca coincide.
+     * @param ifMatch El valor de la cabecera.
+     * @param etag El ETag actual del recurso.
+     * @return true si la precondición se cumple.
+     */
+    static boolean matches(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
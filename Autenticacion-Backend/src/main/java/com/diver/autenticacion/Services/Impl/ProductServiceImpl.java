@@ -1,18 +1,30 @@
 package com.diver.autenticacion.Services.Impl;
 
 import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductFilterDTO;
 import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductPageDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.Exceptions.PreconditionFailedException;
 import com.diver.autenticacion.Exceptions.ResourceNotFoundException;
 import com.diver.autenticacion.Repository.ProductRepository;
+import com.diver.autenticacion.Repository.ProductSpecifications;
+import com.diver.autenticacion.Services.ProductSearchService;
 import com.diver.autenticacion.Services.ProductService;
 import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.enums.EProductSort;
 import com.diver.autenticacion.mapper.ProductMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -21,25 +33,113 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductSearchService productSearchService;
 
+    @Value("${products.page.defaultLimit:20}")
+    private int defaultLimit;
+
+    @Value("${products.page.maxLimit:100}")
+    private int maxLimit;
+
+    @Value("${products.search.defaultLimit:20}")
+    private int searchDefaultLimit;
+
+    @Value("${products.search.maxLimit:100}")
+    private int searchMaxLimit;
+
+    @Value("${products.search.maxQueryLength:200}")
+    private int searchMaxQueryLength;
 
     @Transactional(readOnly = true)
     @Override
-    public List<ProductDTO> findAll()  {
-        log.info("Buscando todos los productos");
-        List<Product> products = productRepository.findAll();
-        return productMapper.toProductDTOList( products);
+    public ProductPageDTO findPage(ProductFilterDTO filter, String cursor, Integer limit, EProductSort sort,
+                                   Sort.Direction direction, Predicate<String> notModified) {
+        int size = limit != null ? limit : defaultLimit;
+        if (size < 1 || size > maxLimit) {
+            throw new IllegalArgumentException("Error: El límite debe estar entre 1 y " + maxLimit + ".");
+        }
+        Specification<Product> specification = toSpecification(filter);
+
+        // El cursor fija el orden: las páginas siguientes deben pedirse con el mismo orden que la primera.
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        if (after != null) {
+            if ((sort != null && sort != after.sort()) || (direction != null && direction != after.direction())) {
+                throw new IllegalArgumentException("Error: El cursor pertenece a otro orden; pida de nuevo la primera página.");
+            }
+            sort = after.sort();
+            direction = after.direction();
+        }
+        sort = sort != null ? sort : EProductSort.ID;
+        direction = direction != null ? direction : Sort.Direction.ASC;
+        log.info("Buscando página de productos: {}, orden {} {}, límite {}", filter, sort, direction, size);
+
+        // Se pide una fila de más solo para saber si hay página siguiente.
+        List<Product> products = productRepository.findPage(specification, sort, direction,
+                after != null ? after.value() : null, after != null ? after.id() : null, size + 1);
+        String nextCursor = null;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+            Product last = products.get(size - 1);
+            nextCursor = new ProductCursor(sort, direction, last.getId(), sort.valueOf(last)).encode();
+        }
+        if (notModified.test(ProductETags.ofPage(products, nextCursor))) {
+            return null;
+        }
+        return new ProductPageDTO(productMapper.toProductDTOList(products), nextCursor);
+    }
+
+    /**
+     * Valida los filtros y los convierte en la {@link Specification} del repositorio. Un texto en blanco no filtra.
+     */
+    private Specification<Product> toSpecification(ProductFilterDTO filter) {
+        Double minPrice = filter.minPrice();
+        Double maxPrice = filter.maxPrice();
+        if ((minPrice != null && (minPrice < 0 || minPrice.isNaN())) || (maxPrice != null && (maxPrice < 0 || maxPrice.isNaN()))) {
+            throw new IllegalArgumentException("Error: Los precios del filtro deben ser números positivos.");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Error: El precio mínimo no puede ser mayor que el máximo.");
+        }
+        String name = filter.name() == null || filter.name().isBlank() ? null : filter.name().trim();
+        if (name != null && name.length() > 100) {
+            throw new IllegalArgumentException("Error: El filtro de nombre no puede exceder los 100 caracteres.");
+        }
+        String description = filter.description() == null || filter.description().isBlank() ? null : filter.description().trim();
+        if (description != null && (description.length() < ProductSpecifications.MIN_CONTAINS_LENGTH || description.length() > 255)) {
+            throw new IllegalArgumentException("Error: El filtro de descripción debe tener entre "
+                    + ProductSpecifications.MIN_CONTAINS_LENGTH + " y 255 caracteres.");
+        }
+        return ProductSpecifications.filter(minPrice, maxPrice, name, description);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public ProductDTO findById(Long id) {
+    public ProductDTO findById(Long id, Predicate<String> notModified) {
         log.info("Buscando producto por id: {}", id);
         Product product= productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException( "Producto no encontrado con id: {" + id + "}"));
+        if (notModified.test(ProductETags.of(product))) {
+            return null;
+        }
         return productMapper.toProductDTO( product);
     }
 
+    @Override
+    public List<ProductSearchHitDTO> search(String query, Integer limit) {
+        int size = limit != null ? limit : searchDefaultLimit;
+        if (size < 1 || size > searchMaxLimit) {
+            throw new IllegalArgumentException("Error: El límite debe estar entre 1 y " + searchMaxLimit + ".");
+        }
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Error: El texto de búsqueda no puede estar vacío.");
+        }
+        if (query.length() > searchMaxQueryLength) {
+            throw new IllegalArgumentException("Error: El texto de búsqueda no puede exceder los " + searchMaxQueryLength + " caracteres.");
+        }
+        log.debug("Buscando productos: '{}', límite {}", query, size);
+        return productSearchService.search(query, size);
+    }
+
     @Transactional
     @Override
     public ProductDTO save(ProductRequestDTO productRequestDTO) {
@@ -47,20 +147,37 @@ public class ProductServiceImpl implements ProductService {
         Product product= productMapper.toproductEntity(productRequestDTO);
         productRepository.save(product);
         log.info("Producto guardado con id: {}", product.getId());
-        return productMapper.toProductDTO(product);
+        ProductDTO savedProduct = productMapper.toProductDTO(product);
+        productSearchService.productSaved(savedProduct);
+        return savedProduct;
     }
 
     @Transactional
     @Override
-    public ProductDTO update(Long id, ProductRequestDTO productRequestDTO) {
+    public ProductDTO update(Long id, ProductRequestDTO productRequestDTO, String ifMatch) {
         log.info("Actualizando producto con id: {}, id");
         Product productToUpdate = productRepository.findById(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Producto no encontrado con id: {" + id + "}"));
+        if (ifMatch != null && !ProductETags.matches(ifMatch, ProductETags.of(productToUpdate))) {
+            throw new PreconditionFailedException("Error: El producto fue modificado por otra petición; vuelve a cargarlo.");
+        }
 
         productMapper.updateProductFromDto( productRequestDTO, productToUpdate);
-        Product updatedProduct = productRepository.save(productToUpdate);
+        Product updatedProduct;
+        try {
+            // flush aquí y no al confirmar: la nueva versión tiene que estar en la respuesta, y un conflicto
+            // con otra actualización simultánea se detecta aquí (UPDATE ... WHERE version = ?).
+            updatedProduct = productRepository.saveAndFlush(productToUpdate);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException("Error: El producto fue modificado por otra petición; vuelve a cargarlo.");
+            }
+            throw e;
+        }
         log.info("Producto actualizado con id: {}", updatedProduct.getId());
-        return productMapper.toProductDTO(updatedProduct);
+        ProductDTO updatedProductDTO = productMapper.toProductDTO(updatedProduct);
+        productSearchService.productSaved(updatedProductDTO);
+        return updatedProductDTO;
     }
 
     @Transactional
@@ -72,6 +189,7 @@ public class ProductServiceImpl implements ProductService {
            throw new ResourceNotFoundException("Producto no encontrado con id: {" + id + "}");
        }
        productRepository.deleteById(id);
+       productSearchService.productDeleted(id);
        log.info("Producto eliminado con id: {}", id);
 
     }
@@ -0,0 +1,162 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.response.SessionDTO;
+import com.diver.autenticacion.Exceptions.ResourceNotFoundException;
+import com.diver.autenticacion.Exceptions.TokenRefreshException;
+import com.diver.autenticacion.Repository.RefreshTokenRepository;
+import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Services.RefreshTokenService;
+import com.diver.autenticacion.entities.RefreshToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Value("${jwt.refreshExpiration}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.refreshTokens.sweepBatchSize:1000}")
+    private int sweepBatchSize;
+
+    @Value("${jwt.refreshTokens.sweepBucket:3600000}")
+    private long sweepBucketMs;
+
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        return create(UUID.randomUUID(), userId, Instant.now());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = TokenRefreshException.class)
+    public Rotation rotate(String refreshToken) {
+        // 1. Una única búsqueda por el índice único del hash (con el usuario y sus roles).
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new TokenRefreshException(null, "El refresh token no existe."));
+
+        Instant now = Instant.now();
+        if (stored.isRevoked()) {
+            throw new TokenRefreshException(null, "El refresh token ha sido revocado.");
+        }
+        if (stored.getRotatedAt() != null) {
+            reuseDetected(stored);
+        }
+        if (!stored.getExpiresAt().isAfter(now)) {
+            throw new TokenRefreshException(null, "El refresh token ha expirado.");
+        }
+
+        // 2. Una única actualización condicional: si otra petición lo rotó antes, también es una reutilización.
+        if (refreshTokenRepository.markRotated(stored.getId(), now) == 0) {
+            reuseDetected(stored);
+        }
+
+        String newToken = create(stored.getFamilyId(), stored.getUser().getId(), now);
+        return new Rotation(stored.getUser(), newToken);
+    }
+
+    @Override
+    @Transactional
+    public void revokeFamily(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SessionDTO> findActiveSessions(Long userId) {
+        return refreshTokenRepository.findActiveByUserId(userId, Instant.now()).stream()
+                .map(token -> new SessionDTO(token.getFamilyId(), token.getCreatedAt(), token.getExpiresAt()))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void revokeSession(Long userId, UUID sessionId) {
+        if (refreshTokenRepository.revokeFamilyOfUser(sessionId, userId) == 0) {
+            throw new ResourceNotFoundException("Sesión no encontrada con ID: " + sessionId);
+        }
+        log.info("Sesión {} del usuario {} revocada.", sessionId, userId);
+    }
+
+    /**
+     * Borra los refresh tokens expirados. En lugar de recorrer la tabla, avanza por tramos de
+     * {@code jwt.refreshTokens.sweepBucket} sobre el índice de expires_at, desde la expiración más antigua
+     * hasta ahora, y borra cada tramo en lotes de {@code jwt.refreshTokens.sweepBatchSize} filas.
+     * Los tokens rotados o revocados se conservan hasta su expiración para poder detectar su reutilización.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refreshTokens.sweepInterval:3600000}")
+    public void sweepExpired() {
+        Instant now = Instant.now();
+        Instant from = refreshTokenRepository.findOldestExpiration();
+        if (from == null || !from.isBefore(now)) {
+            return;
+        }
+        Duration bucket = Duration.ofMillis(sweepBucketMs);
+        long deleted = 0;
+        while (from.isBefore(now)) {
+            Instant to = from.plus(bucket).isBefore(now) ? from.plus(bucket) : now;
+            int batch;
+            do {
+                batch = refreshTokenRepository.deleteExpiredBatch(from, to, sweepBatchSize);
+                deleted += batch;
+            } while (batch == sweepBatchSize);
+            from = to;
+        }
+        log.info("🧹 {} refresh tokens expirados eliminados.", deleted);
+    }
+
+    private String create(UUID familyId, Long userId, Instant now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .user(userRepository.getReferenceById(userId))
+                .createdAt(now)
+                .expiresAt(now.plusMillis(refreshExpirationMs))
+                .build());
+        return token;
+    }
+
+    private void reuseDetected(RefreshToken stored) {
+        int revoked = refreshTokenRepository.revokeFamily(stored.getFamilyId());
+        log.warn("⚠️ Reutilización del refresh token de la familia {} (usuario {}). {} tokens revocados.",
+                stored.getFamilyId(), stored.getUser().getUsername(), revoked);
+        throw new TokenRefreshException(null, "El refresh token ya fue utilizado; la sesión ha sido revocada.");
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+}
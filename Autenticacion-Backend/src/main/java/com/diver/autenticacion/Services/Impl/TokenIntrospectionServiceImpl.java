@@ -0,0 +1,133 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.response.IntrospectionResultDTO;
+import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Services.TokenIntrospectionService;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
+import com.diver.autenticacion.config.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private final JwtUtils jwtUtils;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenDenylist tokenDenylist;
+    private final CustomUserDetailsService userDetailsService;
+    private final TaskExecutor introspectionExecutor;
+
+    @Value("${jwt.introspect.maxTokens:1000}")
+    private int maxTokens;
+
+    @Value("${jwt.introspect.chunkSize:32}")
+    private int chunkSize;
+
+    public TokenIntrospectionServiceImpl(JwtUtils jwtUtils,
+                                         VerifiedTokenCache verifiedTokenCache,
+                                         TokenDenylist tokenDenylist,
+                                         CustomUserDetailsService userDetailsService,
+                                         @Qualifier("introspectionExecutor") TaskExecutor introspectionExecutor) {
+        this.jwtUtils = jwtUtils;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenDenylist = tokenDenylist;
+        this.userDetailsService = userDetailsService;
+        this.introspectionExecutor = introspectionExecutor;
+    }
+
+    @Override
+    public Stream<IntrospectionResultDTO> introspect(List<String> tokens) {
+        if (tokens.size() > maxTokens) {
+            throw new IllegalArgumentException("Error: Se pueden comprobar como máximo " + maxTokens + " tokens por petición.");
+        }
+        // Roles de los tokens que no los llevan en sus claims: una sola consulta por usuario en todo el lote.
+        Map<String, List<String>> rolesBySubject = new ConcurrentHashMap<>();
+
+        // Todos los tramos se encolan antes de responder: si el pool está saturado, el rechazo
+        // (TaskRejectedException) llega aquí y no a mitad de la respuesta.
+        List<CompletableFuture<List<IntrospectionResultDTO>>> chunks = new ArrayList<>();
+        for (int start = 0; start < tokens.size(); start += chunkSize) {
+            List<String> chunk = tokens.subList(start, Math.min(start + chunkSize, tokens.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> chunk.stream().map(token -> introspectOne(token, rolesBySubject)).toList(),
+                    introspectionExecutor));
+        }
+        return chunks.stream().flatMap(chunk -> chunk.join().stream());
+    }
+
+    /**
+     * Nunca lanza: la respuesta ya salió con 200 cuando se consume el resultado, y una excepción a mitad del
+     * stream cortaría el array JSON. Un fallo inesperado (la base de datos sin conexiones al cargar los roles,
+     * por ejemplo) responde ese token como inactivo, que es lo seguro para quien pregunta.
+     */
+    private IntrospectionResultDTO introspectOne(String token, Map<String, List<String>> rolesBySubject) {
+        try {
+            return describe(token, rolesBySubject);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Introspección fallida; el token se informa como inactivo: {}", e.toString());
+            return IntrospectionResultDTO.INACTIVE;
+        }
+    }
+
+    private IntrospectionResultDTO describe(String token, Map<String, List<String>> rolesBySubject) {
+        JwtUtils.VerifiedToken verified;
+        try {
+            verified = verifiedTokenCache.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return IntrospectionResultDTO.INACTIVE;
+        }
+        if (verified.subject() == null || tokenDenylist.isRevoked(verified.id())) {
+            return IntrospectionResultDTO.INACTIVE;
+        }
+        List<String> roles = jwtUtils.hasPrincipalClaims(verified)
+                ? ((List<?>) verified.claims().get(JwtUtils.CLAIM_ROLES)).stream().map(String::valueOf).toList()
+                : rolesOf(verified.subject(), rolesBySubject);
+        if (roles == null) {
+            return IntrospectionResultDTO.INACTIVE; // el usuario ya no existe
+        }
+        return new IntrospectionResultDTO(true, verified.subject(), roles, verified.expiration().getTime() / 1000);
+    }
+
+    /**
+     * Roles del usuario, consultados una sola vez por lote. No usa {@code computeIfAbsent}: la consulta se
+     * ejecutaría dentro del {@code synchronized} del mapa y, con hilos virtuales, fijaría el hilo a su carrier.
+     * Dos tramos que pidan a la vez el mismo usuario pueden cargarlo dos veces.
+     * @return Los roles, o {@code null} si el usuario ya no existe.
+     */
+    private List<String> rolesOf(String username, Map<String, List<String>> rolesBySubject) {
+        List<String> roles = rolesBySubject.get(username);
+        if (roles == null) {
+            roles = loadRoles(username);
+            if (roles != null) {
+                rolesBySubject.putIfAbsent(username, roles);
+            }
+        }
+        return roles;
+    }
+
+    private List<String> loadRoles(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username).getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+        } catch (UsernameNotFoundException e) {
+            log.debug("Introspección de un token de un usuario inexistente: {}", username);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.reques.RegisterRequestDTO;
+import com.diver.autenticacion.Dto.response.UserImportResultDTO;
+import com.diver.autenticacion.Security.RoleRegistry;
+import com.diver.autenticacion.Services.UserImportService;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Importación masiva de usuarios.
+ * <p>
+ * {@link User} usa {@code GenerationType.IDENTITY}, y con él Hibernate inserta fila a fila para conocer cada id.
+ * Aquí se evita JPA: los ids de cada bloque se reservan de una vez en la secuencia de la columna identity
+ * ({@code nextval} sobre {@code generate_series}), y {@code users} y {@code users_roles} se insertan con
+ * batches JDBC en una transacción por bloque. Las contraseñas del bloque se hashean en paralelo en el
+ * pool {@code userImportExecutor}.
+ * </p>
+ * Los duplicados (en el fichero o en la base de datos) se detectan antes de insertar, con una consulta por
+ * bloque. Si aun así el batch falla (p. ej. un registro concurrente con el mismo username), ese bloque se
+ * reintenta fila a fila para aislar las filas culpables.
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String SQL_NEXT_IDS =
+            "SELECT nextval(pg_get_serial_sequence('users', 'id')) FROM generate_series(1, ?)";
+    private static final String SQL_INSERT_USER =
+            "INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)";
+    private static final String SQL_INSERT_USER_ROLE =
+            "INSERT INTO users_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String SQL_EXISTING =
+            "SELECT username, email FROM users WHERE username IN (:usernames) OR email IN (:emails)";
+
+    private static final String MSG_USERNAME_TAKEN = "Error: El nombre de usuario ya está en uso.";
+    private static final String MSG_EMAIL_TAKEN = "Error: El email ya está en uso.";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hashingPasswordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor userImportExecutor;
+
+    @Value("${users.import.chunkSize:1000}")
+    private int chunkSize;
+
+    /**
+     * Máximo de errores que se detallan en la respuesta; a partir de ahí solo se cuentan.
+     */
+    @Value("${users.import.maxReportedErrors:1000}")
+    private int maxReportedErrors;
+
+    public UserImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 DelegatingPasswordEncoder hashingPasswordEncoder,
+                                 RoleRegistry roleRegistry,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier("userImportExecutor") TaskExecutor userImportExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hashingPasswordEncoder = hashingPasswordEncoder;
+        this.roleRegistry = roleRegistry;
+        this.objectMapper = objectMapper;
+        this.userImportExecutor = userImportExecutor;
+    }
+
+    /** Fila ya validada, pendiente de insertar. */
+    private record Row(long line, String username, String email, String password, ERole role) {}
+
+    /** Estado de una importación en curso. */
+    private final class Job {
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<UserImportResultDTO.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        void reject(long line, String username, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportResultDTO.RowError(line, username, message));
+            }
+        }
+    }
+
+    @Override
+    public UserImportResultDTO importUsers(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        Job job = new Job();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Map<String, Integer> csvColumns = null;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = readCsvHeader(line);
+                continue;
+            }
+            job.total++;
+
+            RegisterRequestDTO request;
+            try {
+                request = format == Format.CSV ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+            } catch (IllegalArgumentException e) {
+                job.reject(lineNumber, null, e.getMessage());
+                continue;
+            }
+            Row row = validate(lineNumber, request, job);
+            if (row != null) {
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, job);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, job);
+        }
+
+        log.info("📥 Importación de usuarios terminada en {} ms: {} filas, {} creados, {} rechazados.",
+                System.currentTimeMillis() - start, job.total, job.imported, job.failed);
+        return new UserImportResultDTO(job.total, job.imported, job.failed, job.errors);
+    }
+
+    /**
+     * Comprueba los campos de la fila y los duplicados dentro del propio fichero.
+     * @return La fila lista para importar, o null si se rechazó.
+     */
+    private Row validate(long line, RegisterRequestDTO request, Job job) {
+        String username = request.getUsername();
+        if (isBlank(username) || isBlank(request.getEmail()) || isBlank(request.getPassword())) {
+            job.reject(line, username, "Error: username, email y password son obligatorios.");
+            return null;
+        }
+        ERole role;
+        try {
+            role = parseRole(request.getRole());
+        } catch (IllegalArgumentException e) {
+            job.reject(line, username, "Error: El rol '" + request.getRole() + "' no es válido.");
+            return null;
+        }
+        if (job.seenUsernames.contains(username)) {
+            job.reject(line, username, "Error: El nombre de usuario está repetido en el fichero.");
+            return null;
+        }
+        if (job.seenEmails.contains(request.getEmail())) {
+            job.reject(line, username, "Error: El email está repetido en el fichero.");
+            return null;
+        }
+        job.seenUsernames.add(username);
+        job.seenEmails.add(request.getEmail());
+        return new Row(line, username, request.getEmail(), request.getPassword(), role);
+    }
+
+    private void importChunk(List<Row> chunk, Job job) {
+        List<Row> rows = withoutExistingUsers(chunk, job);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // El hash es lo caro: las filas del bloque se reparten entre todos los hilos del pool.
+        List<CompletableFuture<String>> hashing = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> hashingPasswordEncoder.encode(row.password()), userImportExecutor))
+                .toList();
+        List<String> hashes = hashing.stream().map(CompletableFuture::join).toList();
+
+        List<Long> ids = jdbcTemplate.queryForList(SQL_NEXT_IDS, Long.class, rows.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(rows, hashes, ids));
+            job.imported += rows.size();
+        } catch (DataAccessException e) {
+            log.warn("El batch de {} usuarios falló ({}); se reintenta fila a fila.", rows.size(), e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                List<Row> single = List.of(rows.get(i));
+                List<String> singleHash = List.of(hashes.get(i));
+                List<Long> singleId = List.of(ids.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(single, singleHash, singleId));
+                    job.imported++;
+                } catch (DataAccessException rowError) {
+                    job.reject(rows.get(i).line(), rows.get(i).username(), describe(rowError));
+                }
+            }
+        }
+    }
+
+    /**
+     * Descarta (y anota como error) las filas cuyo username o email ya existen, con una sola consulta.
+     */
+    private List<Row> withoutExistingUsers(List<Row> chunk, Job job) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("usernames", chunk.stream().map(Row::username).toList());
+        params.put("emails", chunk.stream().map(Row::email).toList());
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        namedJdbcTemplate.query(SQL_EXISTING, params, rs -> {
+            takenUsernames.add(rs.getString("username"));
+            takenEmails.add(rs.getString("email"));
+        });
+        if (takenUsernames.isEmpty()) {
+            return chunk;
+        }
+
+        List<Row> rows = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (takenUsernames.contains(row.username())) {
+                job.reject(row.line(), row.username(), MSG_USERNAME_TAKEN);
+            } else if (takenEmails.contains(row.email())) {
+                job.reject(row.line(), row.username(), MSG_EMAIL_TAKEN);
+            } else {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private void insert(List<Row> rows, List<String> hashes, List<Long> ids) {
+        List<Object[]> users = new ArrayList<>(rows.size());
+        List<Object[]> userRoles = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            users.add(new Object[]{ids.get(i), row.username(), row.email(), hashes.get(i)});
+            userRoles.add(new Object[]{ids.get(i), roleRegistry.get(row.role()).getId()});
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT_USER, users);
+        jdbcTemplate.batchUpdate(SQL_INSERT_USER_ROLE, userRoles);
+    }
+
+    private String describe(DataAccessException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.UK_USERNAME) || detail.contains("(username)")) {
+            return MSG_USERNAME_TAKEN;
+        }
+        if (detail.contains(User.UK_EMAIL) || detail.contains("(email)")) {
+            return MSG_EMAIL_TAKEN;
+        }
+        return "Error: No se pudo crear el usuario.";
+    }
+
+    // --- Formatos de entrada ---
+
+    private RegisterRequestDTO parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, RegisterRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Error: La línea no es un objeto JSON válido.");
+        }
+    }
+
+    private Map<String, Integer> readCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("email") || !columns.containsKey("password")) {
+            throw new IllegalArgumentException("Error: La cabecera CSV debe incluir las columnas username, email y password.");
+        }
+        return columns;
+    }
+
+    private RegisterRequestDTO parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        RegisterRequestDTO request = new RegisterRequestDTO();
+        request.setUsername(field(fields, columns.get("username")));
+        request.setEmail(field(fields, columns.get("email")));
+        request.setPassword(field(fields, columns.get("password")));
+        request.setRole(field(fields, columns.get("role")));
+        return request;
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index).trim() : null;
+    }
+
+    /**
+     * Separa una línea CSV por comas, respetando los campos entre comillas dobles ({@code ""} es una comilla).
+     * No admite saltos de línea dentro de un campo.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Acepta {@code USER}, {@code SUPERVISOR}, {@code ADMIN} o el nombre completo ({@code ROLE_USER}...).
+     * Sin rol, el usuario es {@code ROLE_USER} como en el registro.
+     */
+    private static ERole parseRole(String role) {
+        if (isBlank(role)) {
+            return ERole.ROLE_USER;
+        }
+        String name = role.trim().toUpperCase(Locale.ROOT);
+        return ERole.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
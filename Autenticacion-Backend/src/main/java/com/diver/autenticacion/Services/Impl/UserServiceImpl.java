@@ -3,23 +3,46 @@ package com.diver.autenticacion.Services.Impl;
 import com.diver.autenticacion.Dto.UserDto;
 import com.diver.autenticacion.Exceptions.ResourceNotFoundException;
 import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Security.CustomUserDetails;
 import com.diver.autenticacion.Services.UserService;
 import com.diver.autenticacion.entities.User;
 import com.diver.autenticacion.mapper.UserMapper;
+import com.diver.autenticacion.enums.ERole;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    /**
+     * Una fila por usuario, sin ORDER BY ni GROUP BY: la base de datos puede devolver la primera fila sin
+     * leer antes toda la tabla. Los roles salen como máscara con una subconsulta sobre la PK de users_roles.
+     */
+    private static final String SQL_EXPORT = "SELECT u.id, u.username, u.email,"
+            + " (SELECT COALESCE(SUM(" + UserRepository.ROLE_MASK_CASE + "), 0)"
+            + "    FROM users_roles ur JOIN roles r ON r.id = ur.role_id"
+            + "   WHERE ur.user_id = u.id) AS role_mask"
+            + " FROM users u";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${users.export.fetchSize:500}")
+    private int exportFetchSize;
 
     @Override
     @Transactional(readOnly = true)
@@ -30,6 +53,14 @@ public class UserServiceImpl implements UserService {
         return userMapper.toUserDTO(user);
     }
 
+    @Override
+    public UserDto findCurrentUser(CustomUserDetails principal) {
+        if (principal.isFromToken()) {
+            return userMapper.toUserDTO(principal.getUser());
+        }
+        return findUserByUsername(principal.getUsername());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDto findUserById(Long id) {
@@ -47,4 +78,29 @@ public class UserServiceImpl implements UserService {
         // Usamos el método que creamos en el mapper para convertir la lista
         return userMapper.toUserDTOList(users);
     }
-}
\ No newline at end of file
+
+    /**
+     * Con PostgreSQL el fetch size solo crea un cursor de servidor dentro de una transacción
+     * (autocommit desactivado); por eso el método es transaccional aunque solo lea.
+     * No hay entidades gestionadas: cada fila se convierte en DTO y se entrega.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllUsers(Consumer<UserDto> sink) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL_EXPORT,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            UserDto user = new UserDto();
+            user.setId(rs.getLong("id"));
+            user.setUsername(rs.getString("username"));
+            user.setEmail(rs.getString("email"));
+            user.setRoles(ERole.fromMask(rs.getInt("role_mask")).stream()
+                    .map(Enum::name)
+                    .collect(Collectors.toSet()));
+            sink.accept(user);
+        });
+    }
+}
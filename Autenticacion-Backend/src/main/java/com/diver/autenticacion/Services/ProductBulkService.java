@@ -0,0 +1,29 @@
+package com.diver.autenticacion.Services;
+
+import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO;
+
+import java.util.List;
+
+/**
+ * Altas, modificaciones y bajas de productos en bloque (p. ej. la sincronización del catálogo desde el ERP).
+ * Un elemento inválido o inexistente se anota en el resultado y no detiene el resto.
+ */
+public interface ProductBulkService {
+
+    /**
+     * Crea los productos sin {@code id} y actualiza los que lo traen, validando cada uno como en
+     * {@code POST /api/products}. Las actualizaciones no llevan versión: gana la última escritura.
+     * @param products Los productos, como mucho {@code products.bulk.maxItems}.
+     * @return El resultado por elemento, con los ids y versiones asignados.
+     * @throws IllegalArgumentException si la lista está vacía o supera el máximo.
+     */
+    ProductBulkResultDTO upsert(List<ProductRequestDTO> products);
+
+    /**
+     * @param ids Los ids de los productos a eliminar, como mucho {@code products.bulk.maxItems}.
+     * @return El resultado por id ({@code NOT_FOUND} si no existía).
+     * @throws IllegalArgumentException si la lista está vacía o supera el máximo.
+     */
+    ProductBulkResultDTO delete(List<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.diver.autenticacion.Services;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+
+import java.util.List;
+
+/**
+ * Búsqueda de texto sobre el nombre y la descripción de los productos. La implementación se elige con
+ * {@code products.search.mode}: {@code memory} (índice invertido en la JVM, por defecto) o {@code postgres}
+ * ({@code tsvector} con índice GIN).
+ */
+public interface ProductSearchService {
+
+    /**
+     * @param query El texto buscado; todos sus términos deben aparecer, completos o como prefijo de una palabra.
+     * @param limit Número máximo de resultados.
+     * @return Los productos encontrados, del más al menos relevante.
+     */
+    List<ProductSearchHitDTO> search(String query, int limit);
+
+    /**
+     * Un producto se creó o modificó. Dentro de una transacción se aplica al confirmarla.
+     * @param product El producto con sus datos nuevos.
+     */
+    void productSaved(ProductDTO product);
+
+    /**
+     * Un producto se eliminó. Dentro de una transacción se aplica al confirmarla.
+     * @param id El id del producto eliminado.
+     */
+    void productDeleted(Long id);
+}
@@ -1,19 +1,57 @@
 package com.diver.autenticacion.Services;
 
 import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductFilterDTO;
 import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductPageDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.enums.EProductSort;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ProductService {
 
-    List<ProductDTO> findAll();
-
-    ProductDTO findById(Long id);
+    /**
+     * Página del catálogo con paginación por cursor.
+     * @param filter Filtros de precio, nombre y descripción; hay que repetirlos en cada página (el cursor no los lleva).
+     * @param cursor El {@code nextCursor} de la página anterior, o {@code null} para la primera.
+     * @param limit Tamaño de la página, o {@code null} para el de por defecto.
+     * @param sort Campo de orden, o {@code null} (id, o el del cursor).
+     * @param direction Dirección del orden, o {@code null} (ascendente, o la del cursor).
+     * @param notModified Recibe el ETag de la página; si devuelve true (el cliente ya la tiene) no se construye.
+     * @return La página y el cursor de la siguiente, o {@code null} si {@code notModified} devolvió true.
+     */
+    ProductPageDTO findPage(ProductFilterDTO filter, String cursor, Integer limit, EProductSort sort,
+                            Sort.Direction direction, Predicate<String> notModified);
+
+    /**
+     * @param id El id del producto.
+     * @param notModified Recibe el ETag del producto; si devuelve true (el cliente ya lo tiene) no se construye el DTO.
+     * @return El producto, o {@code null} si {@code notModified} devolvió true.
+     */
+    ProductDTO findById(Long id, Predicate<String> notModified);
+
+    /**
+     * Búsqueda de texto en el nombre y la descripción.
+     * @param query El texto buscado; se ignoran mayúsculas y tildes, y cada término vale también como prefijo.
+     * @param limit Número máximo de resultados, o {@code null} para el de por defecto.
+     * @return Los productos que contienen todos los términos, del más al menos relevante.
+     */
+    List<ProductSearchHitDTO> search(String query, Integer limit);
 
     ProductDTO save(ProductRequestDTO productRequestDTO);
 
-    ProductDTO update(Long id, ProductRequestDTO productRequestDTO);
+    /**
+     * @param id El id del producto.
+     * @param productRequestDTO Los nuevos datos.
+     * @param ifMatch La cabecera {@code If-Match}, o {@code null} para actualizar sin condición.
+     * @return El producto actualizado, con su nueva versión.
+     * @throws com.diver.autenticacion.Exceptions.PreconditionFailedException si el producto ya no está en la
+     *         versión de {@code ifMatch} (también si otra petición lo actualiza a la vez).
+     */
+    ProductDTO update(Long id, ProductRequestDTO productRequestDTO, String ifMatch);
 
     void deleteById(Long id);
 }
\ No newline at end of file
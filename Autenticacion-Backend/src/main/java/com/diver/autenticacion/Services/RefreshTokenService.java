@@ -0,0 +1,54 @@
+package com.diver.autenticacion.Services;
+
+import com.diver.autenticacion.Dto.response.SessionDTO;
+import com.diver.autenticacion.entities.User;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gestión de los refresh tokens opacos y de sus familias de rotación.
+ * El valor del token solo existe en la cookie del cliente; en la base de datos se guarda su hash.
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Resultado de rotar un refresh token.
+     * @param user El usuario dueño de la sesión, con sus roles ya cargados.
+     * @param refreshToken El nuevo refresh token (opaco) que sustituye al presentado.
+     */
+    record Rotation(User user, String refreshToken) {}
+
+    /**
+     * Abre una nueva familia (sesión) para el usuario.
+     * @param userId El ID del usuario autenticado.
+     * @return El refresh token opaco que debe entregarse al cliente.
+     */
+    String issue(Long userId);
+
+    /**
+     * Cambia un refresh token activo por uno nuevo de la misma familia.
+     * Si el token ya había sido rotado se considera reutilizado y se revoca toda la familia.
+     * @param refreshToken El token presentado por el cliente.
+     * @return El usuario y el nuevo refresh token.
+     * @throws com.diver.autenticacion.Exceptions.TokenRefreshException si el token no existe, expiró,
+     * está revocado o ya fue usado.
+     */
+    Rotation rotate(String refreshToken);
+
+    /**
+     * Revoca la familia completa del token (logout de esa sesión). No falla si el token no existe.
+     */
+    void revokeFamily(String refreshToken);
+
+    /**
+     * @return Las sesiones vigentes del usuario, la más reciente primero.
+     */
+    List<SessionDTO> findActiveSessions(Long userId);
+
+    /**
+     * Revoca una sesión del usuario (p. ej. "cerrar sesión en otro dispositivo").
+     * @throws com.diver.autenticacion.Exceptions.ResourceNotFoundException si la sesión no es del usuario o ya estaba cerrada.
+     */
+    void revokeSession(Long userId, UUID sessionId);
+}
@@ -0,0 +1,21 @@
+package com.diver.autenticacion.Services;
+
+import com.diver.autenticacion.Dto.response.IntrospectionResultDTO;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Introspección de tokens en lote para el API gateway y los servicios internos.
+ */
+public interface TokenIntrospectionService {
+
+    /**
+     * Verifica los tokens en paralelo en el pool de introspección.
+     * @param tokens Los access tokens a comprobar.
+     * @return Un resultado por token, en el mismo orden. El stream es perezoso: cada elemento está
+     * disponible en cuanto termina su tramo, sin esperar al lote completo.
+     * @throws IllegalArgumentException si el lote supera {@code jwt.introspect.maxTokens}.
+     */
+    Stream<IntrospectionResultDTO> introspect(List<String> tokens);
+}
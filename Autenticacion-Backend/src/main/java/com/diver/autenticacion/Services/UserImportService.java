@@ -0,0 +1,27 @@
+package com.diver.autenticacion.Services;
+
+import com.diver.autenticacion.Dto.response.UserImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Alta masiva de usuarios para administradores (p. ej. al incorporar un cliente nuevo).
+ */
+public interface UserImportService {
+
+    enum Format { NDJSON, CSV }
+
+    /**
+     * Importa los usuarios leyendo el fichero en streaming, por bloques.
+     * Cada fila lleva {@code username}, {@code email}, {@code password} y opcionalmente {@code role}
+     * ({@code USER} por defecto). En CSV la primera línea es la cabecera con esos nombres de columna.
+     * Una fila inválida o duplicada se anota en el resultado y no detiene la importación.
+     * @param input El cuerpo de la petición.
+     * @param format El formato del fichero.
+     * @return El resumen con los errores por fila.
+     * @throws IOException si no se puede leer la entrada.
+     * @throws IllegalArgumentException si la cabecera CSV no tiene las columnas obligatorias.
+     */
+    UserImportResultDTO importUsers(InputStream input, Format format) throws IOException;
+}
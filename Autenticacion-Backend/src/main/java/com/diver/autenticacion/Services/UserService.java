@@ -1,8 +1,10 @@
 package com.diver.autenticacion.Services;
 
 import com.diver.autenticacion.Dto.UserDto;
+import com.diver.autenticacion.Security.CustomUserDetails;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interfaz de servicio para operaciones de negocio relacionadas con los usuarios.
@@ -20,6 +22,16 @@ public interface UserService {
      */
     UserDto findUserByUsername(String username);
 
+    /**
+     * Devuelve el perfil del usuario autenticado.
+     * Si el principal se construyó desde los claims del token (modo stateless) responde sin
+     * consultar la base de datos; en caso contrario lo busca por su username.
+     *
+     * @param principal El principal autenticado.
+     * @return El UserDTO del usuario actual.
+     */
+    UserDto findCurrentUser(CustomUserDetails principal);
+
     /**
      * Busca un usuario por su ID.
      * Este método es típicamente para uso administrativo.
@@ -38,5 +50,13 @@ public interface UserService {
      */
     List<UserDto> findAllUsers();
 
+    /**
+     * Recorre todos los usuarios con un cursor JDBC de solo avance y entrega cada uno a {@code sink}
+     * en cuanto se lee, sin cargar la tabla en memoria. Los DTOs no incluyen la contraseña.
+     *
+     * @param sink Recibe cada usuario, en el orden en que los devuelve la base de datos.
+     */
+    void exportAllUsers(Consumer<UserDto> sink);
+
 
 }
\ No newline at end of file
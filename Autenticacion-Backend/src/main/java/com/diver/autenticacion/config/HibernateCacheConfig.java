@@ -0,0 +1,84 @@
+package com.diver.autenticacion.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache sobre Caffeine) para las lecturas de productos.
+ * <p>
+ * Las regiones se crean aquí, con el tamaño y el TTL de {@code application.properties}, y se entregan a
+ * Hibernate ya hechas; con {@code hibernate.javax.cache.missing_cache_strategy=fail} una región que no esté
+ * en esta lista hace fallar el arranque en lugar de crearse sin límites.
+ * </p>
+ * <ul>
+ *     <li>{@link #PRODUCTS_REGION}: las entidades {@code Product} por id.</li>
+ *     <li>{@link #PRODUCT_CATALOG_REGION}: los ids de cada página del catálogo ({@code GET /api/products}).</li>
+ *     <li>Marcas de tiempo de las tablas: Hibernate descarta un resultado de consulta si su tabla se modificó
+ *         después de cachearlo. No caducan y no se limitan: hay una entrada por tabla.</li>
+ * </ul>
+ * Las métricas por región se publican como {@code hibernate.second.level.cache.requests} y
+ * {@code hibernate.cache.query.requests} (requiere {@code hibernate.generate_statistics=true}).
+ */
+@Slf4j
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String PRODUCTS_REGION = "products";
+    public static final String PRODUCT_CATALOG_REGION = "products-catalog";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${products.cache.maxSize:10000}") long productsMaxSize,
+            @Value("${products.cache.ttl:600000}") long productsTtl,
+            @Value("${products.cache.catalog.maxSize:1000}") long catalogMaxSize,
+            @Value("${products.cache.catalog.ttl:60000}") long catalogTtl) {
+        // Un gestor propio por contexto (URI única) en lugar del compartido del proveedor: así dos contextos
+        // en la misma JVM (p. ej. en los tests) no chocan al crear las mismas regiones.
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + System.identityHashCode(this)), getClass().getClassLoader());
+
+        cacheManager.createCache(PRODUCTS_REGION, region(productsMaxSize, productsTtl));
+        cacheManager.createCache(PRODUCT_CATALOG_REGION, region(catalogMaxSize, catalogTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(catalogMaxSize, catalogTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(-1, -1));
+
+        log.info("✅ Caché de segundo nivel inicializada: productos (máximo {}, TTL {} ms), catálogo (máximo {}, TTL {} ms).",
+                productsMaxSize, productsTtl, catalogMaxSize, catalogTtl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    /**
+     * @param maxSize Número máximo de entradas, o negativo para no limitarlo.
+     * @param ttlMillis Caducidad desde la escritura, o negativo para no caducar.
+     */
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlMillis) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize >= 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttlMillis >= 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        }
+        // Hibernate guarda el estado ya desensamblado e inmutable: no hace falta copiarlo en cada lectura.
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,440 @@
+package com.diver.autenticacion.config;
+
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Verificador especializado para los access tokens HS256 que emite {@link JwtUtils}.
+ * <p>
+ * El parser general de jjwt decodifica la cabecera y el payload a un árbol de Jackson, crea un mapa de claims,
+ * varios Strings y un {@link Mac} nuevo en cada {@code parseClaimsJws}. Este verificador trabaja sobre el token
+ * compacto sin copiarlo en trozos: reutiliza el {@link Mac} y los buffers de un pequeño pool, compara la firma
+ * en tiempo constante y lee del payload solo los claims que usa la aplicación ({@code sub}, {@code iat},
+ * {@code exp} y, si existen, {@code jti}, {@code uid}, {@code email}, {@code roles}).
+ * </p>
+ * Cualquier cosa fuera de lo habitual (otra cabecera, {@code nbf}, escapes en cadenas, números no enteros,
+ * token expirado...) devuelve {@code null} para que {@link JwtUtils} recurra a jjwt, que produce
+ * la excepción y el mensaje exactos.
+ */
+final class Hs256FastVerifier {
+
+    /**
+     * Cabecera exacta que jjwt genera para HS256 sin parámetros extra: {@code {"alg":"HS256"}}.
+     */
+    private static final String HS256_HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final byte[] KEY_SUB = ascii("sub");
+    private static final byte[] KEY_IAT = ascii("iat");
+    private static final byte[] KEY_EXP = ascii("exp");
+    private static final byte[] KEY_NBF = ascii("nbf");
+    private static final byte[] KEY_JTI = ascii("jti");
+    private static final byte[] KEY_UID = ascii(JwtUtils.CLAIM_USER_ID);
+    private static final byte[] KEY_EMAIL = ascii(JwtUtils.CLAIM_EMAIL);
+    private static final byte[] KEY_ROLES = ascii(JwtUtils.CLAIM_ROLES);
+
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final SecretKeySpec keySpec;
+
+    /**
+     * Estados libres. No es un {@link ThreadLocal}: con hilos virtuales cada petición llega en un hilo nuevo y
+     * el estado se crearía y tiraría en cada una. Con el pool vacío se crea uno más, y al devolverlo se
+     * descarta si el pool ya está lleno, así que su tamaño queda acotado por la concurrencia real.
+     */
+    private final BlockingQueue<State> pool;
+
+    Hs256FastVerifier(byte[] keyBytes) {
+        this(keyBytes, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    Hs256FastVerifier(byte[] keyBytes, int poolSize) {
+        this.keySpec = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Intenta verificar el token por el camino rápido.
+     * @param token El token compacto.
+     * @return El token verificado, o null si el token no encaja en el camino rápido (hay que usar jjwt).
+     * @throws SignatureException si el token tiene nuestra cabecera HS256 pero la firma no coincide.
+     */
+    JwtUtils.VerifiedToken tryVerify(String token) {
+        int firstDot = token.indexOf('.');
+        if (firstDot != HS256_HEADER.length() || !token.startsWith(HS256_HEADER)) {
+            return null;
+        }
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        State s = pool.poll();
+        if (s == null) {
+            s = new State(keySpec);
+        }
+        try {
+            return verify(token, firstDot, secondDot, s);
+        } finally {
+            pool.offer(s);
+        }
+    }
+
+    private JwtUtils.VerifiedToken verify(String token, int firstDot, int secondDot, State s) {
+        // 1. Firma: HMAC sobre "cabecera.payload" tal como viene, sin crear Strings intermedios.
+        byte[] input = s.input(secondDot);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+        if (decode(token, secondDot + 1, token.length(), s.providedSignature) != SIGNATURE_LENGTH) {
+            return null;
+        }
+        s.mac.update(input, 0, secondDot);
+        try {
+            s.mac.doFinal(s.expectedSignature, 0);
+        } catch (GeneralSecurityException e) {
+            s.mac.reset(); // el estado vuelve al pool
+            return null;
+        }
+        if (!MessageDigest.isEqual(s.expectedSignature, s.providedSignature)) {
+            throw new SignatureException("La firma del JWT no coincide con la calculada localmente.");
+        }
+
+        // 2. Payload: decodificar en el buffer del estado y leer solo los claims conocidos.
+        byte[] payload = s.payload(((secondDot - firstDot - 1) * 3) / 4 + 3);
+        int payloadLength = decode(token, firstDot + 1, secondDot, payload);
+        if (payloadLength < 0) {
+            return null;
+        }
+        Map<String, Object> claims = new PayloadReader(payload, payloadLength).read();
+        if (claims == null) {
+            return null;
+        }
+        Object sub = claims.get("sub");
+        Object exp = claims.get("exp");
+        if (!(exp instanceof Long expSeconds) || expSeconds * 1000 <= System.currentTimeMillis()) {
+            return null; // sin exp o expirado: jjwt lanza la excepción correspondiente
+        }
+        Object iat = claims.get("iat");
+        return new JwtUtils.VerifiedToken(
+                (String) sub,
+                iat instanceof Long iatSeconds ? new Date(iatSeconds * 1000) : null,
+                new Date(expSeconds * 1000),
+                claims);
+    }
+
+    /**
+     * Decodifica base64url (sin relleno) de {@code src[from, to)} en {@code dst}.
+     * @return Número de bytes escritos, o -1 si hay caracteres inválidos o no caben en {@code dst}.
+     */
+    private static int decode(String src, int from, int to, byte[] dst) {
+        int out = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = src.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                if (out == dst.length) {
+                    return -1;
+                }
+                dst[out++] = (byte) (buffer >> bits);
+            }
+        }
+        return out;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Estado reutilizable (lo usa un hilo cada vez): el Mac ya inicializado con la clave y los buffers de trabajo.
+     */
+    private static final class State {
+
+        private final Mac mac;
+        private final byte[] expectedSignature = new byte[SIGNATURE_LENGTH];
+        private final byte[] providedSignature = new byte[SIGNATURE_LENGTH];
+        private byte[] input = new byte[512];
+        private byte[] payload = new byte[512];
+
+        private State(SecretKeySpec keySpec) {
+            try {
+                this.mac = Mac.getInstance("HmacSHA256");
+                this.mac.init(keySpec);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        }
+
+        private byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            return input;
+        }
+
+        private byte[] payload(int length) {
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Lector JSON mínimo para el payload: un objeto plano cuyas claves conocidas se extraen y el resto se salta.
+     * Devuelve null ante cualquier construcción que prefiera no interpretar.
+     */
+    private static final class PayloadReader {
+
+        private final byte[] json;
+        private final int length;
+        private int pos;
+
+        private PayloadReader(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        private Map<String, Object> read() {
+            Map<String, Object> claims = new HashMap<>(8);
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return claims;
+            }
+            while (true) {
+                skipWhitespace();
+                if (!consume('"')) {
+                    return null;
+                }
+                int keyStart = pos;
+                if (!skipString()) {
+                    return null;
+                }
+                int keyEnd = pos - 1;
+                skipWhitespace();
+                if (!consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+                if (!readValue(keyStart, keyEnd, claims)) {
+                    return null;
+                }
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    skipWhitespace();
+                    return pos == length ? claims : null;
+                }
+                return null;
+            }
+        }
+
+        private boolean readValue(int keyStart, int keyEnd, Map<String, Object> claims) {
+            if (keyIs(keyStart, keyEnd, KEY_SUB)) {
+                return put(claims, "sub", readString());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_EXP)) {
+                return put(claims, "exp", readLong());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_IAT)) {
+                return put(claims, "iat", readLong());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_JTI)) {
+                return put(claims, "jti", readString());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_UID)) {
+                return put(claims, JwtUtils.CLAIM_USER_ID, readLong());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_EMAIL)) {
+                return put(claims, JwtUtils.CLAIM_EMAIL, readString());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_ROLES)) {
+                return put(claims, JwtUtils.CLAIM_ROLES, readStringArray());
+            }
+            if (keyIs(keyStart, keyEnd, KEY_NBF)) {
+                return false; // jjwt valida nbf; no lo replicamos aquí
+            }
+            return skipValue(0);
+        }
+
+        private static boolean put(Map<String, Object> claims, String key, Object value) {
+            if (value == null) {
+                return false;
+            }
+            claims.put(key, value);
+            return true;
+        }
+
+        private boolean keyIs(int start, int end, byte[] expected) {
+            return Arrays.equals(json, start, end, expected, 0, expected.length);
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = pos;
+            while (pos < length) {
+                byte b = json[pos++];
+                if (b == '"') {
+                    return new String(json, start, pos - 1 - start, StandardCharsets.UTF_8);
+                }
+                if (b == '\\') {
+                    return null; // cadenas con escapes: mejor que las interprete jjwt
+                }
+            }
+            return null;
+        }
+
+        private Long readLong() {
+            int start = pos;
+            long value = 0;
+            while (pos < length && json[pos] >= '0' && json[pos] <= '9') {
+                value = value * 10 + (json[pos++] - '0');
+            }
+            int digits = pos - start;
+            if (digits == 0 || digits > 18) {
+                return null;
+            }
+            if (pos < length && (json[pos] == '.' || json[pos] == 'e' || json[pos] == 'E')) {
+                return null;
+            }
+            return value;
+        }
+
+        private List<String> readStringArray() {
+            if (!consume('[')) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(4);
+            skipWhitespace();
+            if (consume(']')) {
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String value = readString();
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                return consume(']') ? values : null;
+            }
+        }
+
+        private boolean skipValue(int depth) {
+            if (depth > 16 || pos >= length) {
+                return false;
+            }
+            byte b = json[pos];
+            if (b == '"') {
+                pos++;
+                return skipString();
+            }
+            if (b == '{' || b == '[') {
+                char close = b == '{' ? '}' : ']';
+                pos++;
+                skipWhitespace();
+                if (consume(close)) {
+                    return true;
+                }
+                while (true) {
+                    skipWhitespace();
+                    if (b == '{') {
+                        if (!consume('"') || !skipString()) {
+                            return false;
+                        }
+                        skipWhitespace();
+                        if (!consume(':')) {
+                            return false;
+                        }
+                        skipWhitespace();
+                    }
+                    if (!skipValue(depth + 1)) {
+                        return false;
+                    }
+                    skipWhitespace();
+                    if (consume(',')) {
+                        continue;
+                    }
+                    return consume(close);
+                }
+            }
+            // número, true, false o null
+            int start = pos;
+            while (pos < length && json[pos] != ',' && json[pos] != '}' && json[pos] != ']'
+                    && json[pos] != ' ' && json[pos] != '\t' && json[pos] != '\n' && json[pos] != '\r') {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        // Avanza hasta después de la comilla de cierre (la de apertura ya se consumió).
+        private boolean skipString() {
+            while (pos < length) {
+                byte b = json[pos++];
+                if (b == '\\') {
+                    pos++;
+                } else if (b == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < length && (json[pos] == ' ' || json[pos] == '\t' || json[pos] == '\n' || json[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private boolean consume(char expected) {
+            if (pos < length && json[pos] == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
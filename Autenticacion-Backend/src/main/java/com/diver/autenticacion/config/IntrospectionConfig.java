@@ -0,0 +1,35 @@
+package com.diver.autenticacion.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool de hilos exclusivo para la introspección de tokens en lote ({@code POST /api/auth/introspect}).
+ * <p>
+ * Es pequeño y con cola acotada a propósito: una ráfaga de introspecciones de un gateway solo puede
+ * ocupar estos hilos, nunca los de Tomcat que atienden al resto del tráfico. Si la cola se llena,
+ * la petición de introspección se rechaza en lugar de esperar.
+ * </p>
+ * Con {@code spring.threads.virtual.enabled=true} los hilos del pool son virtuales: el tamaño y la cola
+ * siguen acotando la concurrencia, pero la espera a la base de datos no ocupa un hilo de plataforma.
+ */
+@Configuration
+public class IntrospectionConfig {
+
+    @Bean(name = "introspectionExecutor")
+    public ThreadPoolTaskExecutor introspectionExecutor(
+            @Value("${jwt.introspect.threads:4}") int threads,
+            @Value("${jwt.introspect.queueCapacity:256}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("introspect-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -25,6 +25,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenDenylist tokenDenylist;
     private final CustomUserDetailsService userDetailsService;
 
     /**
@@ -48,16 +50,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            // 2. Extraer el username del token.
-            final String username = jwtUtils.extractUsername(jwt);
+            // 2. Verificar el token una sola vez: firma, expiración y claims en la misma pasada.
+            //    Si ya lo verificamos en una petición anterior, sale de la caché sin volver a comprobar la firma.
+            final JwtUtils.VerifiedToken verified = verifiedTokenCache.verify(jwt);
+            final String username = verified.subject();
+
+            // Un token revocado (logout o acción de un administrador) no autentica aunque su firma sea válida.
+            if (tokenDenylist.isRevoked(verified.id())) {
+                log.warn("Token revocado presentado para el usuario '{}'. La petición será rechazada.", username);
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             // 3. Si tenemos username y el usuario aún no está autenticado en el contexto actual.
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                // En modo stateless el principal sale de los claims del token y no tocamos la base de datos.
+                UserDetails userDetails = jwtUtils.isStateless() && jwtUtils.hasPrincipalClaims(verified)
+                        ? jwtUtils.principalFromClaims(verified)
+                        : this.userDetailsService.loadUserByUsername(username);
 
-                //  Esta es la validación final que comprueba
-                // que el token es criptográficamente válido y pertenece al usuario.
-                if (jwtUtils.validateToken(jwt) && userDetails.getUsername().equals(username)) {
+                // El token ya es criptográficamente válido; solo comprobamos que pertenece al usuario.
+                if (userDetails.getUsername().equals(username)) {
                     // Si el token es válido, creamos un objeto de autenticación
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -0,0 +1,197 @@
+package com.diver.autenticacion.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Anillo de claves asimétricas (ES256) para firmar los JWT, identificadas por su {@code kid}.
+ * <p>
+ * Solo se usa cuando {@code jwt.algorithm=ES256}; con el valor por defecto (HS256) los tokens se siguen
+ * firmando con {@code jwt.secret} y este componente no genera claves.
+ * </p>
+ * El anillo mantiene tres grupos de claves:
+ * <ul>
+ *     <li><b>current</b>: la clave con la que se firman los tokens nuevos.</li>
+ *     <li><b>next</b>: la siguiente clave. Se publica en el JWKS antes de usarse, para que los servicios
+ *     que cachean el JWKS ya la conozcan cuando aparezca en un token.</li>
+ *     <li><b>retired</b>: claves anteriores que se conservan para verificar tokens aún vigentes
+ *     (hasta {@code jwt.refreshExpiration} después de su retiro).</li>
+ * </ul>
+ * Las claves se generan en memoria: un reinicio invalida los tokens ES256 emitidos.
+ */
+@Slf4j
+@Component
+public class JwtSigningKeys {
+
+    public static final String ES256 = "ES256";
+
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.refreshExpiration}")
+    private long retentionMs;
+
+    /**
+     * Una clave del anillo.
+     * @param kid Identificador publicado en la cabecera del token y en el JWKS.
+     * @param keyPair Par de claves EC P-256.
+     * @param retiredAt Momento en que dejó de firmar (null si sigue activa).
+     */
+    public record SigningKey(String kid, KeyPair keyPair, Instant retiredAt) {
+
+        SigningKey retire(Instant when) {
+            return new SigningKey(kid, keyPair, when);
+        }
+    }
+
+    /**
+     * Estado inmutable del anillo, sustituido atómicamente en cada rotación.
+     * El JWKS y su ETag se precalculan aquí para no serializar nada por petición.
+     */
+    private record KeyRing(SigningKey current, SigningKey next, List<SigningKey> retired,
+                           Map<String, Object> jwks, String etag) {}
+
+    private volatile KeyRing ring;
+
+    @PostConstruct
+    public void init() {
+        if (!isAsymmetric()) {
+            this.ring = buildRing(null, null, List.of());
+            return;
+        }
+        this.ring = buildRing(generateKey(), generateKey(), List.of());
+        log.info("✅ Anillo de claves {} inicializado (kid actual: {}).", ES256, ring.current().kid());
+    }
+
+    public boolean isAsymmetric() {
+        return ES256.equalsIgnoreCase(algorithm);
+    }
+
+    /**
+     * @return La clave con la que deben firmarse los tokens nuevos.
+     */
+    public SigningKey current() {
+        return ring.current();
+    }
+
+    /**
+     * Busca la clave pública de verificación para un {@code kid}.
+     * @param kid El identificador de la cabecera del token.
+     * @return La clave pública, o null si el kid no pertenece al anillo (o ya caducó).
+     */
+    public PublicKey verificationKey(String kid) {
+        KeyRing snapshot = this.ring;
+        if (kid == null || snapshot.current() == null) {
+            return null;
+        }
+        if (kid.equals(snapshot.current().kid())) {
+            return snapshot.current().keyPair().getPublic();
+        }
+        if (kid.equals(snapshot.next().kid())) {
+            return snapshot.next().keyPair().getPublic();
+        }
+        for (SigningKey key : snapshot.retired()) {
+            if (kid.equals(key.kid())) {
+                return key.keyPair().getPublic();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return El documento JWKS ({@code {"keys": [...]}}) con todas las claves públicas verificables.
+     */
+    public Map<String, Object> jwks() {
+        return ring.jwks();
+    }
+
+    /**
+     * @return ETag fuerte del JWKS actual; cambia en cada rotación.
+     */
+    public String jwksETag() {
+        return ring.etag();
+    }
+
+    /**
+     * Rota las claves: next pasa a firmar, current se retira y se genera una nueva next.
+     * Las claves retiradas se purgan cuando ya no puede quedar ningún token vigente firmado con ellas.
+     */
+    @Scheduled(fixedRateString = "${jwt.keys.rotationInterval:86400000}",
+            initialDelayString = "${jwt.keys.rotationInterval:86400000}")
+    public void rotate() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        KeyRing old = this.ring;
+        Instant now = Instant.now();
+        Instant purgeBefore = now.minusMillis(retentionMs);
+
+        List<SigningKey> retired = new ArrayList<>();
+        retired.add(old.current().retire(now));
+        for (SigningKey key : old.retired()) {
+            if (key.retiredAt().isAfter(purgeBefore)) {
+                retired.add(key);
+            }
+        }
+        this.ring = buildRing(old.next(), generateKey(), List.copyOf(retired));
+        log.info("♻️ Claves JWT rotadas. kid actual: {}, claves retiradas aún válidas: {}.",
+                ring.current().kid(), retired.size());
+    }
+
+    private KeyRing buildRing(SigningKey current, SigningKey next, List<SigningKey> retired) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        if (current != null) {
+            keys.add(toJwk(next));
+            keys.add(toJwk(current));
+            retired.forEach(key -> keys.add(toJwk(key)));
+        }
+        String etag = "\"" + Integer.toHexString(keys.stream().map(k -> k.get("kid")).toList().hashCode()) + "\"";
+        return new KeyRing(current, next, retired, Map.of("keys", List.copyOf(keys)), etag);
+    }
+
+    private static SigningKey generateKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return new SigningKey(UUID.randomUUID().toString(), generator.generateKeyPair(), null);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo generar la clave EC P-256", e);
+        }
+    }
+
+    /**
+     * Representa la clave pública como JWK (RFC 7517/7518) para la curva P-256.
+     */
+    private static Map<String, Object> toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.keyPair().getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("use", "sig");
+        jwk.put("alg", ES256);
+        jwk.put("kid", key.kid());
+        jwk.put("x", encoder.encodeToString(toFixedLength(publicKey.getW().getAffineX(), 32)));
+        jwk.put("y", encoder.encodeToString(toFixedLength(publicKey.getW().getAffineY(), 32)));
+        return jwk;
+    }
+
+    // BigInteger.toByteArray puede añadir un byte de signo o quitar ceros a la izquierda.
+    private static byte[] toFixedLength(BigInteger value, int length) {
+        byte[] raw = value.toByteArray();
+        byte[] result = new byte[length];
+        int copy = Math.min(raw.length, length);
+        System.arraycopy(raw, raw.length - copy, result, length - copy, copy);
+        return result;
+    }
+}
@@ -1,35 +1,99 @@
 package com.diver.autenticacion.config;
 
+import com.diver.autenticacion.Security.CustomUserDetails;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.PublicKey;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    private final JwtSigningKeys signingKeys;
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Integer expiration;
 
-    @Value("${jwt.refreshExpiration}")
-    private Integer refreshExpiration;
+    /**
+     * Modo stateless (opcional): el access token lleva id, email y roles del usuario, y el filtro
+     * construye la autenticación a partir de esos claims sin consultar la base de datos.
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    /**
+     * Verificador rápido para los access tokens HS256 (ver {@link Hs256FastVerifier}).
+     * Si está desactivado, todos los tokens pasan por el parser de jjwt.
+     */
+    @Value("${jwt.fastPath.enabled:true}")
+    private boolean fastPathEnabled;
+
+    private Hs256FastVerifier fastVerifier;
+
+    /**
+     * Con {@code jwt.algorithm=ES256}, hasta cuándo se siguen aceptando tokens HS256 firmados con {@code jwt.secret}
+     * (ISO-8601, p. ej. {@code 2026-01-31T12:00:00Z}). Vacío: ninguno, el secreto compartido queda retirado.
+     * Basta con cubrir la vida de los access tokens emitidos antes del cambio ({@code jwt.expiration}).
+     */
+    @Value("${jwt.hs256AcceptedUntil:}")
+    private String hs256AcceptedUntil;
+
+    private Instant hs256Deadline;
+
+    // Claims propios que se añaden al access token en modo stateless.
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLES = "roles";
 
     private Key key;
 
+    /**
+     * Parser construido una sola vez en {@link #init()}. {@link JwtParser} es inmutable y seguro
+     * para uso concurrente, así que no hay motivo para reconstruirlo en cada petición.
+     * La clave de verificación se elige por token: HMAC para HS256 y la clave pública del {@code kid} para ES256.
+     */
+    private JwtParser parser;
+
+    /**
+     * Resultado de verificar un token una única vez: firma, expiración y estructura ya comprobadas.
+     * @param subject El sujeto (username) del token.
+     * @param issuedAt Fecha de emisión.
+     * @param expiration Fecha de expiración.
+     * @param claims Todos los claims del token.
+     */
+    public record VerifiedToken(String subject, Date issuedAt, Date expiration, Map<String, Object> claims) {
+
+        /**
+         * @return El identificador único del token (claim {@code jti}), o null en tokens emitidos sin él.
+         */
+        public String id() {
+            Object jti = claims.get(Claims.ID);
+            return jti != null ? jti.toString() : null;
+        }
+    }
 
     /**
      * el @PostConstruct es un motodo que se ejecuta después de que todas las inyecciones de dependencias han sido
@@ -47,6 +111,21 @@ public class JwtUtils {
             log.warn("⚠️ La clave secreta JWT es menor de 256 bits, lo cual no es seguro para producción.");
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+        this.fastVerifier = fastPathEnabled ? new Hs256FastVerifier(keyBytes) : null;
+        this.hs256Deadline = signingKeys.isAsymmetric() && hs256AcceptedUntil != null && !hs256AcceptedUntil.isBlank()
+                ? Instant.parse(hs256AcceptedUntil.trim())
+                : null;
+        if (hs256Deadline != null) {
+            log.info("⏳ Se aceptan tokens HS256 hasta {} (transición a {}).", hs256Deadline, JwtSigningKeys.ES256);
+        }
         log.info("✅ JWT Utils inicializado correctamente.");
     }
 
@@ -54,42 +133,141 @@ public class JwtUtils {
      * Método centralizado para construir cualquier tipo de token.
      * @param username El sujeto del token.
      * @param tokenExpiration Duración del token en milisegundos.
+     * @param extraClaims Claims adicionales (vacío si no hay).
      * @return El token JWT compacto como String.
      */
-    private String buildToken(String username, Integer tokenExpiration) {
-        return Jwts.builder()
+    private String buildToken(String username, Integer tokenExpiration, Map<String, Object> extraClaims) {
+        JwtBuilder builder = Jwts.builder()
+                .addClaims(extraClaims)
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString()) // jti: permite revocar el token (ver TokenDenylist)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + tokenExpiration))
-                .signWith(this.key, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + tokenExpiration));
+
+        if (signingKeys.isAsymmetric()) {
+            // ES256: firmamos con la clave actual del anillo y publicamos su kid en la cabecera.
+            JwtSigningKeys.SigningKey signingKey = signingKeys.current();
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                    .signWith(signingKey.keyPair().getPrivate(), SignatureAlgorithm.ES256);
+        } else {
+            builder.signWith(this.key, SignatureAlgorithm.HS256);
+        }
+        return builder.compact();
+    }
+
+    /**
+     * Elige la clave con la que verificar un token según su cabecera. Solo se acepta el algoritmo configurado;
+     * con ES256, los tokens HS256 únicamente durante la transición de {@code jwt.hs256AcceptedUntil}.
+     */
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        String algorithm = header.getAlgorithm();
+        if (SignatureAlgorithm.ES256.getValue().equals(algorithm) && signingKeys.isAsymmetric()) {
+            PublicKey publicKey = signingKeys.verificationKey(header.getKeyId());
+            if (publicKey == null) {
+                throw new SignatureException("El kid '" + header.getKeyId() + "' no corresponde a ninguna clave activa.");
+            }
+            return publicKey;
+        }
+        if (SignatureAlgorithm.HS256.getValue().equals(algorithm) && acceptsHs256()) {
+            return this.key;
+        }
+        throw new UnsupportedJwtException("Algoritmo de firma no aceptado: " + algorithm);
+    }
+
+    /**
+     * @return true si los tokens HS256 son válidos ahora: siempre en modo HS256 y, en modo ES256, solo
+     * dentro de la ventana de transición.
+     */
+    private boolean acceptsHs256() {
+        if (!signingKeys.isAsymmetric()) {
+            return true;
+        }
+        return hs256Deadline != null && Instant.now().isBefore(hs256Deadline);
     }
 
     // --- MÉTODOS PÚBLICOS DE GENERACIÓN ---
 
     public String generateToken(Authentication authentication) {
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        log.info("🔑 Generando el Access Token para usuario: {}", username);
-        return buildToken(username, this.expiration);
+        return generateTokenFromUserDetails((UserDetails) authentication.getPrincipal());
+    }
+
+    /**
+     * Genera el access token de un usuario ya cargado. En modo stateless incluye los claims
+     * de id, email y roles para que las peticiones siguientes no necesiten la base de datos.
+     */
+    public String generateTokenFromUserDetails(UserDetails userDetails) {
+        log.info("🔑 Generando el Access Token para usuario: {}", userDetails.getUsername());
+        return buildToken(userDetails.getUsername(), this.expiration, principalClaims(userDetails));
     }
 
     public String generateTokenFromUsername(String username) {
         log.info("🔑 Generando Access Token para usuario: {}", username);
-        return buildToken(username, this.expiration);
+        return buildToken(username, this.expiration, Map.of());
     }
 
-    public String generateRefreshToken(Authentication authentication) {
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        log.info("♻️ Generando el Refresh Token para usuario: {}", username);
-        return buildToken(username, this.refreshExpiration);
+    private Map<String, Object> principalClaims(UserDetails userDetails) {
+        if (!stateless || !(userDetails instanceof CustomUserDetails details)) {
+            return Map.of();
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, details.getId());
+        claims.put(CLAIM_EMAIL, details.getEmail());
+        claims.put(CLAIM_ROLES, details.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return claims;
     }
 
-    public String generateRefreshTokenFromUsername(String username) {
-        log.info("♻️ Generando Refresh Token para usuario: {}", username);
-        return buildToken(username, this.refreshExpiration);
+    // --- MÉTODOS PÚBLICOS DE VALIDACIÓN Y EXTRACCIÓN ---
+
+    public boolean isStateless() {
+        return stateless;
     }
 
-    // --- MÉTODOS PÚBLICOS DE VALIDACIÓN Y EXTRACCIÓN ---
+    /**
+     * Indica si el token verificado trae los claims necesarios para autenticar sin base de datos.
+     * Los tokens emitidos antes de activar el modo stateless no los tienen.
+     */
+    public boolean hasPrincipalClaims(VerifiedToken token) {
+        return token.claims().containsKey(CLAIM_USER_ID) && token.claims().containsKey(CLAIM_ROLES);
+    }
+
+    /**
+     * Reconstruye el principal a partir de los claims de un token ya verificado, sin consultar la base de datos.
+     * @param token El token verificado (debe cumplir {@link #hasPrincipalClaims(VerifiedToken)}).
+     * @return Un {@link CustomUserDetails} sin contraseña, marcado como construido desde el token.
+     */
+    public CustomUserDetails principalFromClaims(VerifiedToken token) {
+        Map<String, Object> claims = token.claims();
+        List<?> roles = (List<?>) claims.get(CLAIM_ROLES);
+        return CustomUserDetails.fromTokenClaims(
+                ((Number) claims.get(CLAIM_USER_ID)).longValue(),
+                token.subject(),
+                (String) claims.get(CLAIM_EMAIL),
+                roles.stream().map(String::valueOf).toList()
+        );
+    }
+
+    /**
+     * Parsea y verifica el token en una sola pasada (una única comprobación HMAC).
+     * Es el método que deben usar los caminos calientes en lugar de combinar
+     * {@link #extractUsername(String)} y {@link #validateToken(String)}.
+     * Los access tokens HS256 propios se resuelven con {@link Hs256FastVerifier}; el resto, con jjwt.
+     * @param token El token a verificar.
+     * @return El token verificado con su subject, expiración y claims.
+     * @throws JwtException si el token está expirado, malformado o la firma no es válida.
+     * @throws IllegalArgumentException si el token es nulo o vacío.
+     */
+    public VerifiedToken verify(String token) {
+        if (fastVerifier != null && token != null && acceptsHs256()) {
+            VerifiedToken verified = fastVerifier.tryVerify(token);
+            if (verified != null) {
+                return verified;
+            }
+        }
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(), claims);
+    }
 
     /**
      * Valida un token JWT. Comprueba la firma, la expiración y la estructura.
@@ -98,10 +276,7 @@ public class JwtUtils {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(this.key)
-                    .build()
-                    .parseClaimsJws(token);
+            this.parser.parseClaimsJws(token);
             return true;
         } catch (ExpiredJwtException e) {
             log.warn("⚠️ JWT token ha expirado: {}", e.getMessage());
@@ -139,9 +314,7 @@ public class JwtUtils {
     private Claims extractAllClaims(String token) {
         // Este es el método que realmente realiza la validación completa.
         // Si algo está mal, lanzará una de las excepciones JwtException.
-        return Jwts.parserBuilder()
-                .setSigningKey(this.key)
-                .build()
+        return this.parser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -0,0 +1,134 @@
+package com.diver.autenticacion.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets en memoria, uno por clave (username o IP), para limitar los intentos de login.
+ * <p>
+ * Cada bucket admite {@code capacity} intentos seguidos y se rellena a razón de {@code capacity} tokens por
+ * {@code refillPeriod}. Las claves se reparten en franjas ({@code stripes}), cada una con su propio lock y su
+ * propio LRU acotado: los hilos solo compiten cuando sus claves caen en la misma franja, y la memoria total
+ * está limitada a {@code maxEntries} buckets (se desaloja el usado hace más tiempo).
+ * </p>
+ * Un bucket desalojado vuelve lleno; con un {@code maxEntries} holgado eso solo ocurre con claves inactivas.
+ */
+public class LoginRateLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Stripe[] stripes;
+    private final LongSupplier nanoClock;
+
+    public LoginRateLimiter(int capacity, Duration refillPeriod, int maxEntries, int stripes) {
+        this(capacity, refillPeriod, maxEntries, stripes, System::nanoTime);
+    }
+
+    LoginRateLimiter(int capacity, Duration refillPeriod, int maxEntries, int stripes, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        this.nanoClock = nanoClock;
+        this.stripes = new Stripe[stripes];
+        int entriesPerStripe = Math.max(1, maxEntries / stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(entriesPerStripe);
+        }
+    }
+
+    /**
+     * Consume un token de la clave.
+     * @param key El username o la IP.
+     * @return 0 si el intento está permitido; si no, los segundos (al menos 1) hasta que vuelva a haber un token.
+     */
+    public long tryAcquire(String key) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.refill(key, nanoClock.getAsLong());
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            double missingNanos = (1 - bucket.tokens) / tokensPerNano;
+            return Math.max(1, (long) Math.ceil(missingNanos / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Retira tokens extra de la clave (p. ej. tras un login fallido). El saldo puede quedar negativo,
+     * hasta {@code -capacity}, para que los fallos repetidos alarguen la espera.
+     */
+    public void penalize(String key, double tokens) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.refill(key, nanoClock.getAsLong());
+            bucket.tokens = Math.max(-capacity, bucket.tokens - tokens);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return El número de buckets en memoria.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+    }
+
+    private final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int maxEntries) {
+            // accessOrder=true: el orden de iteración es LRU y removeEldestEntry desaloja el menos usado.
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        // Se llama con el lock de la franja tomado.
+        Bucket refill(String key, long now) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket();
+                bucket.tokens = capacity;
+                bucket.lastRefillNanos = now;
+                buckets.put(key, bucket);
+                return bucket;
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefillNanos) * tokensPerNano);
+            bucket.lastRefillNanos = now;
+            return bucket;
+        }
+    }
+}
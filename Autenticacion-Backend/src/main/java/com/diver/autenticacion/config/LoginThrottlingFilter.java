@@ -0,0 +1,231 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Dto.ErrorResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Limita los intentos de login por username y por IP del cliente antes de que lleguen a
+ * {@code AuthController.authenticateUser}.
+ * <p>
+ * Un intento por encima del límite se rechaza aquí con 429 y Retry-After, sin tocar la base de datos
+ * ni calcular ningún hash. Cada intento consume un token de ambos buckets y un login fallido (401)
+ * consume {@code login.throttle.failureCost} en total, así que un ataque de credential stuffing se
+ * frena mucho antes que un usuario legítimo que se equivoca una vez.
+ * </p>
+ * El cuerpo se lee como mucho hasta {@code login.throttle.maxBodyBytes}; uno mayor se rechaza con 413 sin
+ * leerlo entero.
+ * La IP es {@link HttpServletRequest#getRemoteAddr()}: detrás de un proxy hay que activar
+ * {@code server.forward-headers-strategy} para que refleje la IP real del cliente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginThrottlingFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/auth/login";
+    private static final int STRIPES = 64;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${login.throttle.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${login.throttle.username.refillPeriod:60000}")
+    private long usernameRefillPeriodMs;
+
+    @Value("${login.throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${login.throttle.ip.refillPeriod:60000}")
+    private long ipRefillPeriodMs;
+
+    @Value("${login.throttle.failureCost:3}")
+    private double failureCost;
+
+    @Value("${login.throttle.maxEntries:100000}")
+    private int maxEntries;
+
+    /**
+     * Tamaño máximo del cuerpo del login; un username y una contraseña caben de sobra.
+     */
+    @Value("${login.throttle.maxBodyBytes:4096}")
+    private int maxBodyBytes;
+
+    private LoginRateLimiter usernameLimiter;
+    private LoginRateLimiter ipLimiter;
+
+    @PostConstruct
+    public void init() {
+        this.usernameLimiter = new LoginRateLimiter(usernameCapacity, Duration.ofMillis(usernameRefillPeriodMs), maxEntries, STRIPES);
+        this.ipLimiter = new LoginRateLimiter(ipCapacity, Duration.ofMillis(ipRefillPeriodMs), maxEntries, STRIPES);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !("POST".equals(request.getMethod()) && LOGIN_PATH.equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Leemos el cuerpo una vez para sacar el username y lo dejamos disponible para el controlador.
+        // Se corta en maxBodyBytes + 1: basta para saber que sobra sin cargar en memoria lo que envíe el cliente.
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            rejectTooLarge(response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            rejectTooLarge(response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String username = extractUsername(cachedRequest.body);
+        String ip = request.getRemoteAddr();
+
+        long retryAfter = ipLimiter.tryAcquire(ip);
+        if (retryAfter == 0 && username != null) {
+            retryAfter = usernameLimiter.tryAcquire(username);
+        }
+        if (retryAfter > 0) {
+            log.warn("Demasiados intentos de login (usuario: '{}', IP: {}). Reintentar en {} s.", username, ip, retryAfter);
+            reject(response, retryAfter);
+            return;
+        }
+
+        filterChain.doFilter(cachedRequest, response);
+
+        if (response.getStatus() == HttpServletResponse.SC_UNAUTHORIZED) {
+            ipLimiter.penalize(ip, failureCost - 1);
+            if (username != null) {
+                usernameLimiter.penalize(username, failureCost - 1);
+            }
+        }
+    }
+
+    private String extractUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null; // cuerpo inválido: solo aplica el límite por IP y el controlador responderá 400
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDTO(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Demasiados intentos de inicio de sesión. Inténtalo de nuevo en " + retryAfterSeconds + " segundos."
+        ));
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDTO(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                "El cuerpo de la petición de login supera los " + maxBodyBytes + " bytes."
+        ));
+    }
+
+    /**
+     * Petición cuyo cuerpo ya se leyó y se sirve de nuevo desde memoria.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Todo el cuerpo está ya en memoria: el listener se avisa en el acto de que hay datos
+                 * y, cuando los ha consumido, de que no queda nada más.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    Objects.requireNonNull(readListener, "readListener");
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
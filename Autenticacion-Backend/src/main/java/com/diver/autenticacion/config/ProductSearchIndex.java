@@ -0,0 +1,471 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre el nombre y la descripción de los productos, para la búsqueda de
+ * {@code GET /api/products/search}.
+ * <p>
+ * Los textos se normalizan igual al indexar y al buscar ({@link #tokenize(String)}): minúsculas, sin tildes
+ * ni diéresis ({@code "Mecánico"} y {@code "mecanico"} son el mismo término) y sin las palabras vacías más
+ * comunes del español. Cada término de la búsqueda tiene que aparecer en el producto, exacto o como prefijo
+ * de una palabra ({@code "tecl"} encuentra {@code "teclado"}); los resultados se ordenan con BM25, y una
+ * aparición en el nombre cuenta el doble que en la descripción.
+ * </p>
+ * <p>
+ * Cada producto tiene un número interno denso (se reutilizan los de los borrados) y las listas de apariciones
+ * son arrays de primitivos: una búsqueda recorre arrays, sin cajas {@code Long}/{@code Float} ni búsquedas en
+ * mapas por cada aparición. Las puntuaciones se acumulan en arrays del tamaño de los candidatos (los productos
+ * con el término más raro), no del catálogo entero.
+ * </p>
+ * Las lecturas no se bloquean entre sí; una escritura (un producto creado, modificado o borrado) espera a
+ * las búsquedas en curso. Se usa un {@link ReentrantReadWriteLock} y no {@code synchronized} para no fijar
+ * los hilos virtuales.
+ */
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    /** Un término que solo coincide como prefijo puntúa menos que el término exacto. */
+    private static final float PREFIX_FACTOR = 0.7f;
+    /** Longitud mínima para buscar un término como prefijo: con una letra coincidiría con medio catálogo. */
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "sin", "su", "sus", "u", "un", "una", "y");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Término → productos que lo contienen. Ordenado para expandir los prefijos. */
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    /** Id del producto → su número interno, que indexa {@link #documents} y {@link #lengths}. */
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private Document[] documents = new Document[16];
+    /** Longitud ponderada de cada producto, aparte de {@link #documents} para recorrerla sin saltos en memoria. */
+    private float[] lengths = new float[16];
+    /** Números internos libres (de productos borrados), para que los arrays no crezcan sin límite. */
+    private int[] free = new int[16];
+    private int freeCount;
+    /** Primer número interno nunca usado. */
+    private int ordinalLimit;
+    private double totalLength;
+
+    private record Document(ProductDTO product, Set<String> terms) {
+    }
+
+    /** Las palabras indexadas que coinciden con un término de la búsqueda, y cuántas apariciones suman. */
+    private record TermMatches(String term, Map<String, Postings> matches, int occurrences) {
+    }
+
+    /**
+     * Apariciones de una palabra: pares (número interno, frecuencia ponderada), sin orden.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int ordinal, float frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Búsqueda lineal, rellenando el hueco con el último. Las modificaciones son raras frente a las
+         * búsquedas, así que no compensa mantener la posición de cada producto.
+         */
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice completo. Los productos se cargan con el bloqueo de escritura tomado, así que una
+     * actualización que llegue mientras tanto se aplica después y no se pierde.
+     * @param loader Carga todos los productos.
+     */
+    public void rebuild(Supplier<? extends Collection<ProductDTO>> loader) {
+        lock.writeLock().lock();
+        try {
+            Collection<ProductDTO> products = loader.get();
+            postings.clear();
+            ordinals.clear();
+            documents = new Document[Math.max(16, products.size())];
+            lengths = new float[documents.length];
+            freeCount = 0;
+            ordinalLimit = 0;
+            totalLength = 0;
+            for (ProductDTO product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade un producto o sustituye su versión anterior.
+     * @param product El producto tal como se devuelve en los resultados.
+     */
+    public void put(ProductDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id El id del producto que deja de existir.
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query El texto buscado.
+     * @param limit Número máximo de resultados.
+     * @return Los productos que contienen todos los términos, del más al menos relevante.
+     */
+    public List<ProductSearchHitDTO> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<TermMatches> perTerm = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<String, Postings> matches = matches(term);
+                if (matches.isEmpty()) {
+                    return List.of(); // todos los términos son obligatorios
+                }
+                int occurrences = 0;
+                for (Postings list : matches.values()) {
+                    occurrences += list.size;
+                }
+                perTerm.add(new TermMatches(term, matches, occurrences));
+            }
+            // Se parte del término con menos apariciones: sus productos son los únicos candidatos.
+            perTerm.sort((a, b) -> Integer.compare(a.occurrences(), b.occurrences()));
+
+            Candidates candidates = candidates(perTerm.get(0));
+            float[] termScores = new float[candidates.count];
+            for (int k = 1; k < perTerm.size() && candidates.count > 0; k++) {
+                Arrays.fill(termScores, 0, candidates.count, 0f);
+                score(perTerm.get(k), candidates, termScores);
+                candidates.retain(termScores);
+            }
+            return topHits(candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza un texto en términos de búsqueda: sin tildes, en minúsculas, partido por lo que no sea letra
+     * o dígito y sin palabras vacías.
+     * @param text El texto (puede ser null).
+     * @return Los términos, en orden y con repeticiones.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty() && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private Map<String, Postings> matches(String term) {
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = postings.get(term);
+            return exact == null ? Map.of() : Map.of(term, exact);
+        }
+        return postings.subMap(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Productos que siguen en la búsqueda, ordenados por número interno, con su puntuación acumulada en la
+     * misma posición de {@link #scores}.
+     */
+    private static final class Candidates {
+        private final int[] ordinals;
+        private final float[] scores;
+        private int count;
+
+        Candidates(int[] ordinals, float[] scores, int count) {
+            this.ordinals = ordinals;
+            this.scores = scores;
+            this.count = count;
+        }
+
+        /** Posición del producto entre los candidatos, o negativa si no lo es. */
+        int indexOf(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, count, ordinal);
+        }
+
+        /**
+         * Se quedan los candidatos que también contienen el último término, sumando su puntuación.
+         * Compacta en el sitio, así que el orden por número interno se mantiene.
+         */
+        void retain(float[] termScores) {
+            int kept = 0;
+            for (int c = 0; c < count; c++) {
+                if (termScores[c] > 0) {
+                    ordinals[kept] = ordinals[c];
+                    scores[kept] = scores[c] + termScores[c];
+                    kept++;
+                }
+            }
+            count = kept;
+        }
+    }
+
+    /**
+     * Los candidatos iniciales: los productos que contienen el término más raro, con su puntuación. Si el
+     * término coincide con varias palabras por prefijo, cada producto se queda con la mejor.
+     */
+    private Candidates candidates(TermMatches term) {
+        // (número interno << 32 | bits de la puntuación): al ordenar quedan agrupados por producto y, como las
+        // puntuaciones son positivas, la mejor de cada producto es la última de su grupo.
+        long[] pairs = new long[term.occurrences()];
+        int pairCount = 0;
+        Bm25 bm25 = new Bm25();
+        for (Map.Entry<String, Postings> match : term.matches().entrySet()) {
+            Postings list = match.getValue();
+            float weight = bm25.weight(term, match.getKey(), list);
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.ordinals[i];
+                float score = bm25.score(weight, list.frequencies[i], ordinal);
+                pairs[pairCount++] = (long) ordinal << 32 | Float.floatToRawIntBits(score);
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+        int[] ordinals = new int[pairCount];
+        float[] scores = new float[pairCount];
+        int count = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i + 1 < pairCount && pairs[i + 1] >>> 32 == pairs[i] >>> 32) {
+                continue;
+            }
+            ordinals[count] = (int) (pairs[i] >>> 32);
+            scores[count] = Float.intBitsToFloat((int) pairs[i]);
+            count++;
+        }
+        return new Candidates(ordinals, scores, count);
+    }
+
+    /**
+     * Puntuación BM25 de un término de la búsqueda en cada candidato que lo contiene; los demás productos
+     * se saltan. Si el término coincide con varias palabras por prefijo, cada candidato se queda con la mejor.
+     * @param termScores Recibe la puntuación de cada candidato, por su posición en {@code candidates}.
+     */
+    private void score(TermMatches term, Candidates candidates, float[] termScores) {
+        Bm25 bm25 = new Bm25();
+        for (Map.Entry<String, Postings> match : term.matches().entrySet()) {
+            Postings list = match.getValue();
+            float weight = bm25.weight(term, match.getKey(), list);
+            for (int i = 0; i < list.size; i++) {
+                int index = candidates.indexOf(list.ordinals[i]);
+                if (index >= 0) {
+                    float score = bm25.score(weight, list.frequencies[i], list.ordinals[i]);
+                    if (score > termScores[index]) {
+                        termScores[index] = score;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Los parámetros de BM25 que dependen del índice entero, calculados una vez por término. */
+    private final class Bm25 {
+        private final int documentCount = ordinals.size();
+        // k1 * (1 - b + b * longitud / media) = base + perLength * longitud
+        private final float base = K1 * (1 - B);
+        private final float perLength = (float) (K1 * B * documentCount / totalLength);
+
+        float weight(TermMatches term, String word, Postings list) {
+            double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+            return (float) ((word.equals(term.term()) ? 1 : PREFIX_FACTOR) * idf * (K1 + 1));
+        }
+
+        float score(float weight, float tf, int ordinal) {
+            return weight * tf / (tf + base + perLength * lengths[ordinal]);
+        }
+    }
+
+    /**
+     * Los {@code limit} mejores candidatos con un montículo de primitivos, de modo que la mayoría de los
+     * candidatos se descartan con una sola comparación. El montículo guarda posiciones en {@code candidates}.
+     */
+    private List<ProductSearchHitDTO> topHits(Candidates candidates, int limit) {
+        int[] heap = new int[Math.min(limit, candidates.count)]; // el peor de los mejores, en la raíz
+        int heapSize = 0;
+        for (int c = 0; c < candidates.count; c++) {
+            if (heapSize < heap.length) {
+                heap[heapSize] = c;
+                siftUp(heap, heapSize++, candidates);
+            } else if (better(c, heap[0], candidates)) {
+                heap[0] = c;
+                siftDown(heap, heapSize, candidates);
+            }
+        }
+        ProductSearchHitDTO[] hits = new ProductSearchHitDTO[heapSize];
+        while (heapSize > 0) {
+            int c = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, candidates);
+            hits[heapSize] = new ProductSearchHitDTO(documents[candidates.ordinals[c]].product(), candidates.scores[c]);
+        }
+        return Arrays.asList(hits);
+    }
+
+    /** Más puntuación; a igual puntuación, el id menor, para que el orden sea estable. */
+    private boolean better(int a, int b, Candidates candidates) {
+        if (candidates.scores[a] != candidates.scores[b]) {
+            return candidates.scores[a] > candidates.scores[b];
+        }
+        return documents[candidates.ordinals[a]].product().getId() < documents[candidates.ordinals[b]].product().getId();
+    }
+
+    private void siftUp(int[] heap, int index, Candidates candidates) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(heap[parent], heap[index], candidates)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, Candidates candidates) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (better(heap[worst], heap[child], candidates)) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private void add(ProductDTO product) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        for (String term : tokenize(product.getName())) {
+            frequencies.merge(term, NAME_WEIGHT, Float::sum);
+            length += NAME_WEIGHT;
+        }
+        for (String term : tokenize(product.getDescription())) {
+            frequencies.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            length += DESCRIPTION_WEIGHT;
+        }
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = free[--freeCount];
+        } else {
+            if (ordinalLimit == documents.length) {
+                documents = Arrays.copyOf(documents, ordinalLimit * 2);
+                lengths = Arrays.copyOf(lengths, ordinalLimit * 2);
+            }
+            ordinal = ordinalLimit++;
+        }
+        for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(ordinal, entry.getValue());
+        }
+        documents[ordinal] = new Document(product, frequencies.keySet());
+        lengths[ordinal] = length;
+        ordinals.put(product.getId(), ordinal);
+        totalLength += length;
+    }
+
+    private void removeDocument(Long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (String term : documents[ordinal].terms()) {
+            Postings list = postings.get(term);
+            list.remove(ordinal);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        documents[ordinal] = null;
+        totalLength -= lengths[ordinal];
+        lengths[ordinal] = 0;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = ordinal;
+    }
+}
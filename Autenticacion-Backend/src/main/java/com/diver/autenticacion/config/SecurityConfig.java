@@ -4,10 +4,17 @@ import com.diver.autenticacion.Exceptions.RestAccessDeniedHandler;
 import com.diver.autenticacion.Exceptions.RestAuthenticationEntryPoint;
 import com.diver.autenticacion.Repository.UserRepository;
 import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Security.CalibratedBCryptPasswordEncoder;
 import com.diver.autenticacion.Security.JwtEntryPoint;
+import com.diver.autenticacion.Security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,7 +25,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,7 +33,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @RequiredArgsConstructor
@@ -36,8 +45,48 @@ public class SecurityConfig {
     
     private final JwtEntryPoint jwtEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final LoginThrottlingFilter loginThrottlingFilter;
     private final UserRepository userRepository;
     private final CustomUserDetailsService customUserDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Hilos del pool de hash de contraseñas; 0 = número de núcleos disponibles.
+     */
+    @Value("${password.hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${password.hashing.queueCapacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${password.hashing.retryAfter:1}")
+    private long passwordHashingRetryAfterSeconds;
+
+    /**
+     * Coste de BCrypt fijo; si es > 0 tiene prioridad sobre la calibración.
+     */
+    @Value("${password.hashing.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    /**
+     * Latencia objetivo por hash para calibrar el coste al arrancar; 0 = sin calibración.
+     */
+    @Value("${password.hashing.targetMillis:0}")
+    private long passwordHashingTargetMillis;
+
+    /**
+     * Rango del coste calibrado, dentro de {@value #BCRYPT_MIN_STRENGTH}-{@value #BCRYPT_MAX_STRENGTH}.
+     */
+    @Value("${password.hashing.bcrypt.minStrength:" + BCRYPT_MIN_STRENGTH + "}")
+    private int bcryptMinStrength;
+
+    @Value("${password.hashing.bcrypt.maxStrength:" + BCRYPT_MAX_STRENGTH + "}")
+    private int bcryptMaxStrength;
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final int BCRYPT_MIN_STRENGTH = 10; // el valor por defecto de Spring; nunca bajamos de aquí
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+    private static final int BCRYPT_DEFAULT_STRENGTH = 12; // sin coste fijo ni calibración
 
     @Bean
     protected SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -52,19 +101,76 @@ public class SecurityConfig {
                         .accessDeniedHandler(new RestAccessDeniedHandler())) // 403 personalizado
 
                 .authorizeHttpRequests(auth -> auth
+                        // Las métricas muestran detalles internos (cachés, pools, tráfico): solo administradores.
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
+                        // La introspección revela sujeto y roles de tokens ajenos: no es pública como el resto de /api/auth.
+                        .requestMatchers(HttpMethod.POST, "/api/auth/introspect").hasRole("ADMIN")
                         .requestMatchers("/api/auth/**")
                         .permitAll()
                         .anyRequest().authenticated())
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint(jwtEntryPoint))
+                // El throttling del login va primero: rechaza el exceso antes de cualquier otro trabajo.
+                .addFilterBefore(loginThrottlingFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * {@link DelegatingPasswordEncoder}: los hashes nuevos se guardan como {@code {bcrypt}...} con el coste
+     * elegido por {@link #bcryptStrength()}, y los antiguos sin prefijo se siguen verificando como BCrypt. Cualquier
+     * hash con otro algoritmo o con un coste menor se rehace en el siguiente login correcto (ver
+     * {@link CustomUserDetailsService#updatePassword}). Argon2 queda aplazado (ver {@link CalibratedBCryptPasswordEncoder}).
+     * Es el encoder "en bruto": la aplicación usa {@link #passwordEncoder()}, y solo los procesos por lotes con
+     * su propio pool (importación de usuarios) lo inyectan directamente.
+     */
     @Bean
+    public DelegatingPasswordEncoder hashingPasswordEncoder() {
+        CalibratedBCryptPasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(bcryptStrength());
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt); // hashes guardados antes de usar prefijos {id}
+        return delegating;
+    }
+
+    /**
+     * El coste de BCrypt: el fijado en {@code password.hashing.bcrypt.strength} si lo hay; si no, el calibrado
+     * para {@code password.hashing.targetMillis} dentro del rango configurado; si tampoco, {@value #BCRYPT_DEFAULT_STRENGTH}.
+     */
+    private int bcryptStrength() {
+        if (bcryptMinStrength < BCRYPT_MIN_STRENGTH || bcryptMaxStrength > BCRYPT_MAX_STRENGTH
+                || bcryptMinStrength > bcryptMaxStrength) {
+            throw new IllegalStateException("password.hashing.bcrypt.minStrength/maxStrength deben estar entre "
+                    + BCRYPT_MIN_STRENGTH + " y " + BCRYPT_MAX_STRENGTH + ": " + bcryptMinStrength + "-" + bcryptMaxStrength);
+        }
+        if (bcryptStrength > 0) {
+            if (bcryptStrength < bcryptMinStrength || bcryptStrength > bcryptMaxStrength) {
+                throw new IllegalStateException("password.hashing.bcrypt.strength debe estar entre "
+                        + bcryptMinStrength + " y " + bcryptMaxStrength + ": " + bcryptStrength);
+            }
+            return bcryptStrength;
+        }
+        if (passwordHashingTargetMillis > 0) {
+            return CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMillis(passwordHashingTargetMillis),
+                    bcryptMinStrength, bcryptMaxStrength);
+        }
+        return Math.clamp(BCRYPT_DEFAULT_STRENGTH, bcryptMinStrength, bcryptMaxStrength);
+    }
+
+    /**
+     * El encoder de la aplicación: {@link #hashingPasswordEncoder()} ejecutado en un pool acotado
+     * (ver {@link OffloadingPasswordEncoder}), tanto para el registro como para la verificación del
+     * login en {@link DaoAuthenticationProvider}.
+     */
+    @Bean
+    @Primary
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashingThreads > 0
+                ? passwordHashingThreads
+                : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(hashingPasswordEncoder(), threads,
+                passwordHashingQueueCapacity, passwordHashingRetryAfterSeconds, meterRegistry);
     }
 
 
@@ -75,6 +181,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService( customUserDetailsService);
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        // Tras un login correcto, si el hash no usa el algoritmo/coste actual se guarda uno nuevo.
+        daoAuthenticationProvider.setUserDetailsPasswordService(customUserDetailsService);
         return daoAuthenticationProvider;
 
         // DaoAuthenticationProvider es un proveedor de autenticación que utiliza un UserDetailsService para obtener
@@ -87,7 +195,11 @@ public class SecurityConfig {
 
         corsConfiguration.setAllowedOrigins(List.of("http://localhost:4200"));
         corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
-        corsConfiguration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        // If-Match / If-None-Match: las peticiones condicionales de productos (412 y 304).
+        corsConfiguration.setAllowedHeaders(List.of("Authorization", "Content-Type",
+                HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH));
+        // Sin exponerlo, el navegador oculta el ETag al cliente y este no puede reenviarlo.
+        corsConfiguration.setExposedHeaders(List.of(HttpHeaders.ETAG));
         corsConfiguration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
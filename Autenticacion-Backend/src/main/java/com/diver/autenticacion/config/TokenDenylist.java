@@ -0,0 +1,515 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Exceptions.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lista de revocación (denylist) de tokens por su {@code jti}, persistida en un fichero mapeado en memoria.
+ * <p>
+ * El fichero contiene dos estructuras:
+ * </p>
+ * <ul>
+ *     <li>Un <b>filtro de Bloom</b> que responde "seguro que no está" con unas pocas lecturas de bits.
+ *     Es el camino de casi todas las peticiones.</li>
+ *     <li>Una <b>tabla hash exacta</b> (direccionamiento abierto) con {@code jti} y expiración, que solo se
+ *     consulta cuando el filtro indica un posible acierto.</li>
+ * </ul>
+ * Al vivir en un fichero mapeado, la lista sobrevive a reinicios y la comparten las instancias del mismo host
+ * que apunten a la misma ruta ({@code jwt.denylist.path}). Las escrituras se serializan con un lock en proceso
+ * y un {@link FileLock} entre procesos; las lecturas no toman ningún lock.
+ * Las entradas cuyo {@code exp} ya pasó se purgan periódicamente y su hueco se reutiliza. La tabla conserva
+ * siempre al menos un hueco vacío, así que toda secuencia de sondeo termina antes de recorrerla entera.
+ * <p>
+ * Una entrada vive lo que le queda al access token, así que la tabla necesita como mínimo
+ * {@code revocaciones por segundo en el pico × jwt.expiration} huecos; la capacidad se calcula a partir de
+ * {@code jwt.denylist.peakRevocationsPerSecond} con holgura (ver {@link #MAX_LOAD_FACTOR}), salvo que se fije
+ * {@code jwt.denylist.capacity}. Pasado ese factor de carga se avisa en el log; si aun así se llena, una
+ * revocación purga los expirados antes de rendirse y, si no hay sitio, responde 503.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    private static final int MAGIC = 0x4A54444C; // "JTDL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    /** Huecos no vacíos (ocupados o liberados por la purga); se recalcula al abrir el fichero. */
+    private static final int USED_SLOTS_OFFSET = 16;
+    /**
+     * Entradas adelantadas por la compactación (ver {@link #compactTombstones()}); una búsqueda fallida que lo ve
+     * cambiar se repite, porque la entrada pudo moverse a un hueco por el que ya había pasado.
+     */
+    private static final int MOVES_OFFSET = 20;
+    private static final int SLOT_BYTES = 24; // msb, lsb, exp (segundos)
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+    private static final int BLOOM_HASHES = 7; // ~1% de falsos positivos con 10 bits por entrada
+
+    /**
+     * Marca de hueco liberado por la purga: la búsqueda continúa, la inserción puede reutilizarlo. La propia purga
+     * vacía las que cierran una secuencia de sondeo, para que las búsquedas fallidas no sigan pasando por ellas.
+     */
+    private static final long TOMBSTONE = -1L;
+
+    /**
+     * Ocupación prevista en el pico: con direccionamiento abierto, los sondeos se alargan deprisa por encima de ~0,7.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.5;
+    /** Ocupación a partir de la cual se avisa de que la tabla se está quedando sin sitio. */
+    private static final double WARN_LOAD_FACTOR = 0.75;
+    private static final int MIN_CAPACITY = 1024;
+    /** La mayor potencia de dos cuyos huecos caben en un único {@link MappedByteBuffer}. */
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+
+    @Value("${jwt.denylist.path:token-denylist.bin}")
+    private String path;
+
+    /**
+     * Número de huecos de la tabla; 0 = calcularlo con {@link #peakRevocationsPerSecond} y {@link #tokenLifetimeMillis}.
+     */
+    @Value("${jwt.denylist.capacity:0}")
+    private int capacity;
+
+    @Value("${jwt.denylist.peakRevocationsPerSecond:50}")
+    private int peakRevocationsPerSecond;
+
+    /** Vida de un access token: lo que tarda una entrada en poder purgarse. */
+    @Value("${jwt.expiration:420000}")
+    private long tokenLifetimeMillis;
+
+    @Value("${jwt.denylist.purgeInterval:60000}")
+    private long purgeIntervalMillis;
+
+    /** Si ya se avisó de que la tabla se llena; se rearma cuando la purga la deja por debajo del umbral. */
+    private boolean nearlyFullWarned;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long bloomBits;
+    private int bloomOffset;
+    private int slotsOffset;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (capacity <= 0) {
+            capacity = capacityFor(peakRevocationsPerSecond, tokenLifetimeMillis);
+        }
+        Path file = Path.of(path).toAbsolutePath();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        long bloomWords = ((long) capacity * BLOOM_BITS_PER_ENTRY + 63) / 64;
+        this.bloomBits = bloomWords * 64;
+        this.bloomOffset = HEADER_BYTES;
+        this.slotsOffset = (int) (bloomOffset + bloomWords * 8);
+        long size = slotsOffset + (long) capacity * SLOT_BYTES;
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileLock ignored = channel.lock()) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) == 0) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, capacity);
+                buffer.force();
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != capacity) {
+                throw new IllegalStateException("El fichero de denylist " + file
+                        + " tiene otro formato o capacidad; bórralo o ajusta jwt.denylist.capacity.");
+            }
+            int used = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                if (slotExp(slot) != 0) {
+                    used++;
+                }
+            }
+            buffer.putInt(USED_SLOTS_OFFSET, used);
+        }
+        log.info("✅ Denylist de tokens mapeada en {} ({} entradas como máximo).", file, capacity);
+    }
+
+    /**
+     * @param revocationsPerSecond Revocaciones por segundo previstas en el pico.
+     * @param lifetimeMillis Vida de un access token.
+     * @return Huecos para las revocaciones de una vida de token al {@link #MAX_LOAD_FACTOR}, redondeados a la
+     *         potencia de dos siguiente (así un pico estimado un poco distinto no cambia el formato del fichero) y
+     *         {@link #MIN_CAPACITY} como mínimo.
+     */
+    static int capacityFor(int revocationsPerSecond, long lifetimeMillis) {
+        double live = (double) revocationsPerSecond * Math.ceil(lifetimeMillis / 1000.0);
+        long needed = (long) Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, Math.ceil(live / MAX_LOAD_FACTOR)));
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Comprueba si un token ha sido revocado.
+     * @param jti El identificador del token (claim {@code jti}); null si el token no lo tiene.
+     * @return true si el jti está en la lista y su expiración aún no ha pasado.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        UUID id = toUuid(jti);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        VarHandle.acquireFence();
+        if (!mightContain(msb, lsb)) {
+            return false; // camino habitual: unas pocas lecturas de bits
+        }
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        int slot;
+        int moves;
+        do {
+            moves = buffer.getInt(MOVES_OFFSET);
+            VarHandle.acquireFence();
+            slot = findSlot(msb, lsb);
+            VarHandle.acquireFence();
+        } while (slot < 0 && moves != buffer.getInt(MOVES_OFFSET));
+        return slot >= 0 && slotExp(slot) > nowSeconds;
+    }
+
+    /**
+     * Revoca un token hasta su expiración. Es idempotente.
+     * @param jti El identificador del token.
+     * @param expiresAtMillis Expiración del token (epoch ms); después de ella la entrada se purga.
+     * @throws ServiceUnavailableException si la tabla sigue llena después de purgar los expirados.
+     */
+    public void revoke(String jti, long expiresAtMillis) {
+        UUID id = toUuid(jti);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long expSeconds = Math.max(1, (expiresAtMillis + 999) / 1000);
+
+        writeLock.lock();
+        try (FileLock ignored = channel.lock()) {
+            int existing = findSlot(msb, lsb);
+            int slot = existing >= 0 ? existing : findFreeSlot(msb, lsb);
+            if (isFull(slot)) {
+                // Antes de rechazar, lo que haya caducado desde la última purga programada deja sitio.
+                purgeLocked();
+                slot = findFreeSlot(msb, lsb);
+                if (isFull(slot)) {
+                    log.error("⚠️ Denylist de tokens llena ({} huecos) con todas sus entradas vigentes; aumenta "
+                            + "jwt.denylist.peakRevocationsPerSecond o jwt.denylist.capacity.", capacity);
+                    throw new ServiceUnavailableException("Error: No se puede revocar el token en este momento; inténtalo más tarde.",
+                            Math.max(1, purgeIntervalMillis / 1000));
+                }
+            }
+            if (slotExp(slot) == 0) {
+                buffer.putInt(USED_SLOTS_OFFSET, usedSlots() + 1);
+                warnIfNearlyFull();
+            }
+            // El exp se escribe el último: es lo que marca el hueco como ocupado.
+            int offset = slotOffset(slot);
+            buffer.putLong(offset, msb);
+            buffer.putLong(offset + 8, lsb);
+            buffer.putLong(offset + 16, Math.max(expSeconds, existing >= 0 ? slotExp(slot) : 0));
+            setBloomBits(msb, lsb);
+            VarHandle.releaseFence();
+            log.debug("⛔ Token con jti {} revocado hasta {}.", jti, expSeconds);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo bloquear el fichero de denylist.", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marca como libres las entradas expiradas, vacía las marcas que cierran una secuencia de sondeo y
+     * reconstruye el filtro de Bloom con las vigentes, para que los bits de tokens ya caducados no sigan
+     * provocando falsos positivos.
+     */
+    @Scheduled(fixedDelayString = "${jwt.denylist.purgeInterval:60000}")
+    public void purgeExpired() {
+        writeLock.lock();
+        try (FileLock ignored = channel.lock()) {
+            purgeLocked();
+        } catch (IOException e) {
+            log.error("No se pudo purgar la denylist de tokens: {}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * La purga de {@link #purgeExpired()}; debe llamarse con el lock de escritura y el {@link FileLock}.
+     */
+    private void purgeLocked() {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        long[] bloom = new long[(int) (bloomBits / 64)];
+        int purged = 0;
+        int tombstones = 0;
+        int live = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long exp = slotExp(slot);
+            if (exp == 0) {
+                continue;
+            }
+            if (exp == TOMBSTONE) {
+                tombstones++;
+                continue;
+            }
+            int offset = slotOffset(slot);
+            if (exp <= nowSeconds) {
+                buffer.putLong(offset + 16, TOMBSTONE);
+                purged++;
+            } else {
+                live++;
+                long msb = buffer.getLong(offset);
+                long lsb = buffer.getLong(offset + 8);
+                for (int i = 0; i < BLOOM_HASHES; i++) {
+                    long bit = bloomIndex(msb, lsb, i);
+                    bloom[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+        if (purged == 0 && tombstones == 0) {
+            return;
+        }
+        compactTombstones();
+        int emptied = clearUnneededTombstones();
+        if (purged > 0) {
+            // Cada palabra nueva contiene todos los bits de las entradas vigentes: reemplazarla palabra a
+            // palabra nunca deja de marcar un token revocado, ni siquiera para un lector concurrente.
+            for (int word = 0; word < bloom.length; word++) {
+                buffer.putLong(bloomOffset + word * 8, bloom[word]);
+            }
+        }
+        VarHandle.releaseFence();
+        if (usedSlots() < capacity * WARN_LOAD_FACTOR) {
+            nearlyFullWarned = false;
+        }
+        log.info("🧹 Denylist purgada: {} entradas expiradas eliminadas, {} huecos vaciados, {} vigentes.",
+                purged, emptied, live);
+    }
+
+    /**
+     * Adelanta entradas vigentes a las marcas de hueco liberado anteriores en su secuencia de sondeo, de modo que
+     * ninguna entrada necesita ya atravesarlas y {@link #clearUnneededTombstones()} puede vaciarlas. Sin esto, una
+     * tabla que llegó a llenarse sigue contando sus marcas como ocupadas y rechaza las inserciones cuyo primer hueco
+     * libre es el último vacío. Cada entrada se copia antes de marcar su hueco original, y
+     * {@link #isRevoked(String)} repite la búsqueda si entretanto cambió {@link #MOVES_OFFSET}.
+     * Debe llamarse con el lock de escritura.
+     */
+    private void compactTombstones() {
+        // Se empieza justo después de un hueco vacío (siempre hay uno) para recorrer cada secuencia desde su
+        // principio: una entrada solo se mueve hacia atrás, así que las marcas que deja quedan por delante.
+        int empty = 0;
+        while (slotExp(empty) != 0) {
+            empty++;
+        }
+        for (int i = 1; i <= capacity; i++) {
+            int tombstone = (empty + i) % capacity;
+            if (slotExp(tombstone) != TOMBSTONE) {
+                continue;
+            }
+            for (int step = 1; step < capacity; step++) {
+                int slot = (tombstone + step) % capacity;
+                long exp = slotExp(slot);
+                if (exp == 0) {
+                    break; // fin de la secuencia: nada de lo que sigue puede llegar hasta la marca
+                }
+                if (exp == TOMBSTONE) {
+                    continue;
+                }
+                int offset = slotOffset(slot);
+                long msb = buffer.getLong(offset);
+                long lsb = buffer.getLong(offset + 8);
+                int home = home(msb, lsb);
+                if (Math.floorMod(tombstone - home, capacity) < Math.floorMod(slot - home, capacity)) {
+                    int target = slotOffset(tombstone);
+                    buffer.putLong(target, msb);
+                    buffer.putLong(target + 8, lsb);
+                    VarHandle.releaseFence();
+                    buffer.putLong(target + 16, exp);
+                    VarHandle.releaseFence();
+                    // Antes de marcar el original: quien vea la marca verá también el contador cambiado.
+                    buffer.putInt(MOVES_OFFSET, buffer.getInt(MOVES_OFFSET) + 1);
+                    VarHandle.releaseFence();
+                    buffer.putLong(offset + 16, TOMBSTONE);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Vacía las marcas de hueco liberado que ninguna entrada vigente necesita atravesar: ninguna de las que siguen
+     * hasta el próximo hueco vacío tiene su posición inicial antes de la marca. Una búsqueda de cualquier entrada
+     * presente sigue encontrándola, y una que se detiene antes falla igual que si siguiera; por eso es seguro con
+     * lectores concurrentes. Tras {@link #compactTombstones()} esto vacía todas las marcas. Debe llamarse con el
+     * lock de escritura.
+     * @return Número de huecos vaciados.
+     */
+    private int clearUnneededTombstones() {
+        int emptied = 0;
+        for (int tombstone = 0; tombstone < capacity; tombstone++) {
+            if (slotExp(tombstone) == TOMBSTONE && !isCrossed(tombstone)) {
+                buffer.putLong(slotOffset(tombstone) + 16, 0L);
+                emptied++;
+            }
+        }
+        buffer.putInt(USED_SLOTS_OFFSET, usedSlots() - emptied);
+        return emptied;
+    }
+
+    /**
+     * @return true si alguna entrada vigente posterior en la secuencia pasa por {@code tombstone} al buscarla.
+     */
+    private boolean isCrossed(int tombstone) {
+        for (int step = 1; step < capacity; step++) {
+            int slot = (tombstone + step) % capacity;
+            long exp = slotExp(slot);
+            if (exp == 0) {
+                return false;
+            }
+            if (exp == TOMBSTONE) {
+                continue;
+            }
+            int offset = slotOffset(slot);
+            int home = home(buffer.getLong(offset), buffer.getLong(offset + 8));
+            if (Math.floorMod(tombstone - home, capacity) < Math.floorMod(slot - home, capacity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true si no hay hueco para una entrada nueva: ninguno libre, o solo el último vacío, que no se ocupa
+     *         nunca porque es lo que garantiza que toda búsqueda termina.
+     */
+    private boolean isFull(int slot) {
+        return slot < 0 || (slotExp(slot) == 0 && usedSlots() + 1 >= capacity);
+    }
+
+    /**
+     * Avisa una vez (hasta que la purga libere sitio) de que la ocupación pasó de {@link #WARN_LOAD_FACTOR}.
+     */
+    private void warnIfNearlyFull() {
+        if (!nearlyFullWarned && usedSlots() >= capacity * WARN_LOAD_FACTOR) {
+            nearlyFullWarned = true;
+            log.warn("⚠️ Denylist de tokens al {}% ({} de {} huecos); aumenta jwt.denylist.peakRevocationsPerSecond "
+                    + "o jwt.denylist.capacity.", usedSlots() * 100L / capacity, usedSlots(), capacity);
+        }
+    }
+
+    /**
+     * @return Huecos no vacíos de la tabla (entradas vigentes, expiradas aún sin purgar y marcas de hueco liberado).
+     */
+    int usedSlots() {
+        return buffer.getInt(USED_SLOTS_OFFSET);
+    }
+
+    private boolean mightContain(long msb, long lsb) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = bloomIndex(msb, lsb, i);
+            long word = buffer.getLong(bloomOffset + (int) (bit >>> 6) * 8);
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBloomBits(long msb, long lsb) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = bloomIndex(msb, lsb, i);
+            int offset = bloomOffset + (int) (bit >>> 6) * 8;
+            buffer.putLong(offset, buffer.getLong(offset) | (1L << bit));
+        }
+    }
+
+    // Doble hashing (Kirsch-Mitzenmacher) sobre los bits ya aleatorios del UUID.
+    private long bloomIndex(long msb, long lsb, int i) {
+        return Math.floorMod(lsb + i * (msb | 1L), bloomBits);
+    }
+
+    /**
+     * @return El hueco que contiene el jti, o -1 si no está.
+     */
+    private int findSlot(long msb, long lsb) {
+        int start = home(msb, lsb);
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = (start + probe) % capacity;
+            long exp = slotExp(slot);
+            if (exp == 0) {
+                return -1; // hueco vacío: fin de la secuencia de sondeo
+            }
+            int offset = slotOffset(slot);
+            if (exp != TOMBSTONE && buffer.getLong(offset) == msb && buffer.getLong(offset + 8) == lsb) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return El primer hueco libre (vacío o liberado por la purga) en la secuencia de sondeo, o -1 si está llena.
+     */
+    private int findFreeSlot(long msb, long lsb) {
+        int start = home(msb, lsb);
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = (start + probe) % capacity;
+            long exp = slotExp(slot);
+            if (exp == 0 || exp == TOMBSTONE) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return El primer hueco de la secuencia de sondeo del jti.
+     */
+    private int home(long msb, long lsb) {
+        return (int) Math.floorMod(msb ^ lsb, (long) capacity);
+    }
+
+    private long slotExp(int slot) {
+        return buffer.getLong(slotOffset(slot) + 16);
+    }
+
+    private int slotOffset(int slot) {
+        return slotsOffset + slot * SLOT_BYTES;
+    }
+
+    // Los jti que emite JwtUtils son UUID; cualquier otro valor se reduce a un UUID determinista.
+    private static UUID toUuid(String jti) {
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(jti.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
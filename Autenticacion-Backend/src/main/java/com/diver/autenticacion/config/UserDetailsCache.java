@@ -0,0 +1,96 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de los usuarios cargados por {@link com.diver.autenticacion.Services.CustomUserDetailsService}.
+ * <p>
+ * Sin ella, cada petición autenticada con un access token consulta {@code users} y {@code users_roles}.
+ * Guarda {@link CustomUserDetails} inmutables (con sus authorities ya calculadas), así que una misma entrada
+ * se comparte sin riesgo entre peticiones concurrentes. El tamaño está acotado por {@code users.cache.maxSize}
+ * y cada entrada caduca a los {@code users.cache.ttl} ms de cargarse: es el máximo que tarda en verse un cambio
+ * hecho directamente en la base de datos. Los cambios hechos por la aplicación (contraseña, roles) desalojan
+ * la entrada al momento.
+ * </p>
+ * Las métricas de aciertos, fallos y desalojos se publican como {@code cache.gets} y
+ * {@code cache.evictions} con la etiqueta {@code cache=userDetails}.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    private static final String CACHE_NAME = "userDetails";
+
+    private final Cache<String, CustomUserDetails> cache;
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${users.cache.maxSize:10000}") long maxSize,
+                            @Value("${users.cache.ttl:60000}") long ttlMillis) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+        log.info("✅ Caché de usuarios inicializada (máximo {} entradas, TTL {} ms).", maxSize, ttlMillis);
+    }
+
+    /**
+     * Devuelve el usuario desde la caché o lo carga con {@code loader}. Si el loader lanza una excepción
+     * (p. ej. usuario inexistente) no se guarda nada y la excepción se propaga.
+     * <p>
+     * La carga se hace fuera de la caché y no con {@code cache.get(key, loader)}: ese método ejecuta el loader
+     * dentro del {@code synchronized} de {@link java.util.concurrent.ConcurrentHashMap#compute}, y una consulta
+     * JDBC ahí dentro fijaría el hilo virtual a su carrier. A cambio, dos fallos simultáneos del mismo usuario
+     * pueden cargarlo dos veces.
+     * </p>
+     * @param username El nombre de usuario.
+     * @param loader La carga desde la base de datos.
+     * @return El usuario.
+     */
+    public CustomUserDetails get(String username, Function<String, CustomUserDetails> loader) {
+        CustomUserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        CustomUserDetails loaded = loader.apply(username);
+        cache.put(username, loaded);
+        return loaded;
+    }
+
+    /**
+     * Desaloja un usuario. Dentro de una transacción se desaloja también tras el commit, para que una
+     * lectura concurrente no vuelva a guardar la versión anterior mientras la transacción sigue abierta.
+     * @param username El nombre de usuario modificado.
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vacía la caché (p. ej. cuando cambian los roles).
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
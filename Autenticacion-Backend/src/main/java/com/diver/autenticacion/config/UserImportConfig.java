@@ -0,0 +1,33 @@
+package com.diver.autenticacion.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool de hilos para hashear las contraseñas de la importación masiva de usuarios
+ * ({@code POST /api/admin/users/import}).
+ * <p>
+ * Es independiente del pool de {@link com.diver.autenticacion.Security.OffloadingPasswordEncoder}: una
+ * importación de decenas de miles de filas llenaría su cola y los logins empezarían a recibir 429.
+ * La importación envía un bloque cada vez, así que la cola nunca pasa del tamaño del bloque.
+ * </p>
+ */
+@Configuration
+public class UserImportConfig {
+
+    /**
+     * @param threads Hilos del pool; 0 = número de núcleos disponibles.
+     */
+    @Bean(name = "userImportExecutor")
+    public ThreadPoolTaskExecutor userImportExecutor(@Value("${users.import.threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setThreadNamePrefix("user-import-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,133 @@
+package com.diver.autenticacion.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché en memoria de access tokens ya verificados.
+ * <p>
+ * Los clientes reenvían el mismo token cientos de veces durante su vida útil; con esta caché solo
+ * la primera petición paga la verificación HMAC y el parseo de claims. Las entradas se indexan por
+ * el SHA-256 del token (nunca se guarda el token en claro), el tamaño está acotado por
+ * {@code jwt.cache.maxSize} y cada entrada caduca exactamente en el {@code exp} de su token.
+ * </p>
+ * Las métricas de aciertos, fallos y desalojos se publican como {@code cache.gets} y
+ * {@code cache.evictions} con la etiqueta {@code cache=jwtVerifiedTokens}.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwtVerifiedTokens";
+
+    private final JwtUtils jwtUtils;
+    private final Cache<String, JwtUtils.VerifiedToken> cache;
+    private final Clock clock;
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtils jwtUtils,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.maxSize:10000}") long maxSize) {
+        this(jwtUtils, meterRegistry, maxSize, Ticker.systemTicker(), Clock.systemUTC());
+    }
+
+    /**
+     * @param ticker Reloj de Caffeine para la caducidad de las entradas.
+     * @param clock Hora actual contra la que se compara el {@code exp} de los tokens; en los tests avanza junto con {@code ticker}.
+     */
+    VerifiedTokenCache(JwtUtils jwtUtils, MeterRegistry meterRegistry, long maxSize, Ticker ticker, Clock clock) {
+        this.jwtUtils = jwtUtils;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+        log.info("✅ Caché de tokens verificados inicializada (máximo {} entradas).", maxSize);
+    }
+
+    /**
+     * Devuelve el token verificado desde la caché o, si no está, lo verifica con {@link JwtUtils#verify(String)}
+     * y lo guarda. Los tokens inválidos nunca se cachean: la excepción se propaga al llamador. Tampoco uno que
+     * {@link JwtUtils#verify(String)} acepte con su {@code exp} ya pasado (p. ej. por la tolerancia de reloj).
+     * @param token El token compacto recibido en la cabecera Authorization.
+     * @return El token verificado.
+     * @throws io.jsonwebtoken.JwtException si el token está expirado, malformado o la firma no es válida.
+     */
+    public JwtUtils.VerifiedToken verify(String token) {
+        String key = digest(token);
+        // Si el loader devuelve null, Caffeine no guarda nada.
+        JwtUtils.VerifiedToken verified = cache.get(key, k -> {
+            JwtUtils.VerifiedToken loaded = jwtUtils.verify(token);
+            return isExpired(loaded) ? null : loaded;
+        });
+
+        // Salvaguarda: si el token expiró entre la carga y esta lectura, no lo damos por bueno.
+        if (verified == null || isExpired(verified)) {
+            cache.invalidate(key);
+            return jwtUtils.verify(token); // lanzará ExpiredJwtException
+        }
+        return verified;
+    }
+
+    /**
+     * Elimina un token de la caché (p. ej. cuando deja de ser válido antes de su expiración).
+     * @param token El token compacto.
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    private boolean isExpired(JwtUtils.VerifiedToken verified) {
+        return verified.expiration().getTime() <= clock.millis();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM.
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Política de expiración por entrada: cada token vive en la caché hasta su propio {@code exp}.
+     */
+    private final class ExpireAtTokenExpiration implements Expiry<String, JwtUtils.VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtUtils.VerifiedToken value, long currentTime) {
+            long remainingMs = value.expiration().getTime() - clock.millis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtUtils.VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtUtils.VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.diver.autenticacion.entities;
 
+import com.diver.autenticacion.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -8,10 +9,24 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 
+/**
+ * Producto del catálogo. Se lee mucho más de lo que se escribe, así que vive en la caché de segundo nivel
+ * (región {@link HibernateCacheConfig#PRODUCTS_REGION}); READ_WRITE bloquea la entrada mientras una
+ * transacción la modifica, de modo que ninguna lectura ve un producto a medio actualizar.
+ */
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCTS_REGION)
+@Table(name = "products", indexes = {
+        // Índices de la paginación por cursor de GET /api/products (ver ProductRepositoryImpl).
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -55,5 +70,14 @@ public class Product {
     @Column(nullable = false)
     private double price;
 
+    /**
+     * Versión para el bloqueo optimista: Hibernate la incrementa en cada actualización y rechaza la que parta
+     * de una versión anterior. Es también el ETag del producto.
+     * El valor por defecto permite añadir la columna a una tabla que ya tiene filas.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 
 }
\ No newline at end of file
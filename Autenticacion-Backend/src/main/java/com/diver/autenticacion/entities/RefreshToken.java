@@ -0,0 +1,68 @@
+package com.diver.autenticacion.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Refresh token opaco. Solo se guarda el hash SHA-256 del valor entregado al cliente.
+ * <p>
+ * Los tokens se agrupan en <b>familias</b>: el login abre una familia (una sesión / un dispositivo) y cada
+ * refresco sustituye el token activo por uno nuevo de la misma familia. Un token ya rotado que vuelve a
+ * presentarse indica que alguien lo ha copiado, y se revoca la familia entera.
+ * </p>
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+                @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+                @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+        }
+)
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * SHA-256 (base64url) del token entregado al cliente.
+     */
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+
+    /**
+     * Familia de rotación: se mantiene en todos los tokens de una misma sesión.
+     */
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Momento en que el token se cambió por otro; null mientras es el token activo de su familia.
+     */
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+}
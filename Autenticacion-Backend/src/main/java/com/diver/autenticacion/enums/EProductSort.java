@@ -0,0 +1,55 @@
+package com.diver.autenticacion.enums;
+
+import com.diver.autenticacion.entities.Product;
+
+import java.util.Locale;
+
+/**
+ * Campos por los que se puede ordenar el catálogo en {@code GET /api/products}. Cada uno (salvo el id)
+ * tiene un índice {@code (campo, id)} en {@code products}: el id desempata y hace que el orden sea total,
+ * que es lo que necesita la paginación por cursor.
+ */
+public enum EProductSort {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    ;
+
+    private final String property;
+
+    EProductSort(String property) {
+        this.property = property;
+    }
+
+    /**
+     * @return El atributo de {@link Product} por el que se ordena.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @param product Un producto.
+     * @return El valor de este campo en el producto, el que se guarda en el cursor.
+     */
+    public Object valueOf(Product product) {
+        return switch (this) {
+            case ID -> product.getId();
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+        };
+    }
+
+    /**
+     * @param value El nombre del campo, sin distinguir mayúsculas ({@code id}, {@code name}, {@code price}).
+     * @return El campo.
+     * @throws IllegalArgumentException si el campo no admite ordenación.
+     */
+    public static EProductSort from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: No se puede ordenar por '" + value + "'. Valores admitidos: id, name, price.");
+        }
+    }
+}
@@ -1,7 +1,34 @@
 package com.diver.autenticacion.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Roles de la aplicación. Cada rol ocupa un bit ({@code 1 << ordinal}) en la máscara de roles que devuelve
+ * {@code UserRepository.findAuthByUsername}: los roles nuevos se añaden al final, y su bit también en
+ * {@code UserRepository.ROLE_MASK_CASE}.
+ */
 public enum ERole {
     ROLE_USER,
     ROLE_SUPERVISOR,
     ROLE_ADMIN,
+    ;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param mask Máscara de roles (un bit por rol).
+     * @return Los roles cuyos bits están activos.
+     */
+    public static Set<ERole> fromMask(int mask) {
+        Set<ERole> roles = EnumSet.noneOf(ERole.class);
+        for (ERole role : values()) {
+            if ((mask & role.mask()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
 }
@@ -19,10 +19,13 @@ public interface ProductMapper {
     List<ProductDTO> toProductDTOList (List<Product> products);
 
     // Convierte un DTO de Petición a una Entidad (para crear un producto nuevo)
+    // La versión (bloqueo optimista) la gestiona Hibernate: nunca se copia de la petición.
+    @Mapping(target = "version", ignore = true)
     Product toproductEntity (ProductRequestDTO productRequestDTO );
 
 
     // Actualiza una Entidad existente con los datos de un DTO de Petición (para actualizar)
     // @MappingTarget le dice a MapStruct que no cree una nueva instancia, sino que modifique la existente.
+    @Mapping(target = "version", ignore = true)
     void updateProductFromDto(ProductRequestDTO productRequestDTO, @MappingTarget Product product);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ package com.diver.autenticacion.runner;
 import com.diver.autenticacion.Repository.ProductRepository;
 import com.diver.autenticacion.Repository.RoleRepository;
 import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Security.RoleRegistry;
 import com.diver.autenticacion.entities.Product;
 import com.diver.autenticacion.entities.Role;
 import com.diver.autenticacion.entities.User;
@@ -19,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Este componente se ejecuta una vez al arrancar la aplicación.
@@ -32,6 +34,7 @@ import java.util.Set;
 public class DatabaseInitializer implements CommandLineRunner {
 
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final PasswordEncoder passwordEncoder;
@@ -57,15 +60,20 @@ public class DatabaseInitializer implements CommandLineRunner {
      * Crea los roles definidos en el Enum ERole si no existen en la base de datos.
      * Este método es idempotente, lo que significa que se puede ejecutar de forma segura
      * varias veces sin causar efectos secundarios no deseados.
+     * Al terminar carga el {@link RoleRegistry}, que es el que usan el resto de la inicialización y la aplicación.
      */
     private void seedRoles() {
         log.info("Sembrando roles...");
-        Arrays.stream(ERole.values()).forEach(erole -> {
-            if (!roleRepository.findByName(erole).isPresent()) {
-                roleRepository.save(new Role(erole));
-                log.info("Rol '{}' creado.", erole.name());
-            }
-        });
+        Set<ERole> existing = roleRepository.findAll().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+        Arrays.stream(ERole.values())
+                .filter(erole -> !existing.contains(erole))
+                .forEach(erole -> {
+                    roleRepository.save(new Role(erole));
+                    log.info("Rol '{}' creado.", erole.name());
+                });
+        roleRegistry.refresh();
     }
 
     /**
@@ -77,8 +85,7 @@ public class DatabaseInitializer implements CommandLineRunner {
         if (userRepository.findByUsername(adminUsername).isEmpty()) {
             log.info("Creando usuario administrador: {}", adminUsername);
 
-            Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                    .orElseThrow(() -> new RuntimeException("Error: Rol 'ROLE_ADMIN' no encontrado."));
+            Role adminRole = roleRegistry.get(ERole.ROLE_ADMIN);
 
             User adminUser = User.builder()
                     .username(adminUsername)
@@ -99,8 +106,7 @@ public class DatabaseInitializer implements CommandLineRunner {
         if (userRepository.findByUsername(supervisorUsername).isEmpty()) {
             log.info("Creando usuario supervisor: {}", supervisorUsername);
 
-            Role supervisorRole = roleRepository.findByName(ERole.ROLE_SUPERVISOR)
-                    .orElseThrow(() -> new RuntimeException("Error: Rol 'ROLE_SUPERVISOR' no encontrado."));
+            Role supervisorRole = roleRegistry.get(ERole.ROLE_SUPERVISOR);
 
             User supervisorUser = User.builder()
                     .username(supervisorUsername)
@@ -121,8 +127,7 @@ public class DatabaseInitializer implements CommandLineRunner {
         if (userRepository.findByUsername(userUsername).isEmpty()) {
             log.info("Creando usuario normal: {}", userUsername);
 
-            Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Rol 'ROLE_USER' no encontrado."));
+            Role userRole = roleRegistry.get(ERole.ROLE_USER);
 
             User regularUser = User.builder()
                     .username(userUsername)
@@ -0,0 +1,6 @@
+-- Extensiones que necesita el esquema. No las crea la aplicación: se ejecuta UNA vez por base de datos, como
+-- superusuario o propietario de la base de datos, antes del primer arranque (ver WARP.md). El usuario de la
+-- aplicación no necesita el permiso CREATE sobre la base de datos.
+
+-- Trigramas para los índices de los filtros del catálogo (db/products-indexes.sql).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,24 @@
+-- Índices de los filtros del catálogo (GET /api/products, ver ProductSpecifications).
+-- Se ejecuta en cada arranque, después de que Hibernate cree o actualice las tablas
+-- (spring.jpa.defer-datasource-initialization), así que todas las sentencias deben poder repetirse.
+-- El rango de precio usa idx_products_price_id, que declara la entidad Product.
+
+-- pg_trgm no se crea aquí (el usuario de la aplicación no tiene por qué poder crear extensiones): la instala
+-- una vez un DBA con db/extensions.sql. Si falta, el arranque se detiene con este mensaje y no con un
+-- "operator class gin_trgm_ops does not exist". El cuerpo va entre comillas simples y no entre $$ porque el
+-- script se parte por ';' y los ';' dentro de comillas simples se respetan.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        RAISE EXCEPTION ''Falta la extensión pg_trgm en la base de datos %'', current_database()
+            USING HINT = ''Un DBA debe ejecutar una vez db/extensions.sql (ver WARP.md).'';
+    END IF;
+END
+';
+
+-- Prefijo del nombre: lower(name) LIKE 'abc%'. GIN de trigramas y no B-tree con text_pattern_ops, porque el
+-- B-tree solo acota un LIKE cuyo patrón conoce al planificar, y las sentencias preparadas acaban con plan genérico.
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+
+-- Texto en la descripción: lower(description) LIKE '%abc%'.
+CREATE INDEX IF NOT EXISTS idx_products_description_trgm ON products USING gin (lower(description) gin_trgm_ops);
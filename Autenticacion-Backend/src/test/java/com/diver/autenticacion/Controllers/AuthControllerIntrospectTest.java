@@ -0,0 +1,103 @@
+package com.diver.autenticacion.Controllers;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Services.Impl.TokenIntrospectionServiceImpl;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
+import com.diver.autenticacion.config.VerifiedTokenCache;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * La respuesta de la introspección se escribe después del 200: ningún fallo de un token puede cortar el array.
+ */
+class AuthControllerIntrospectTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private CustomUserDetailsService userDetailsService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = mock(VerifiedTokenCache.class);
+        userDetailsService = mock(CustomUserDetailsService.class);
+        TokenIntrospectionServiceImpl introspectionService = new TokenIntrospectionServiceImpl(mock(JwtUtils.class),
+                verifiedTokenCache, mock(TokenDenylist.class), userDetailsService, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(introspectionService, "maxTokens", 100);
+        ReflectionTestUtils.setField(introspectionService, "chunkSize", 2);
+        controller = new AuthController(null, null, null, introspectionService, objectMapper);
+    }
+
+    @Test
+    void siFallaLaCargaDeRolesElTokenSaleInactivoYElArrayQuedaCompleto() throws Exception {
+        tokenOf("ana-token", "ana");
+        tokenOf("bob-token", "bob");
+        tokenOf("eva-token", "eva");
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(userWithRole("ana"));
+        when(userDetailsService.loadUserByUsername("bob"))
+                .thenThrow(new DataAccessResourceFailureException("Connection is not available, request timed out"));
+        when(userDetailsService.loadUserByUsername("eva")).thenThrow(new IllegalStateException("inesperado"));
+
+        JsonNode results = objectMapper.readTree(write(controller.introspect(
+                List.of("ana-token", "bob-token", "eva-token", "ana-token"))));
+
+        assertTrue(results.isArray());
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).get("active").asBoolean());
+        assertEquals("ROLE_USER", results.get(0).get("roles").get(0).asText());
+        assertFalse(results.get(1).get("active").asBoolean());
+        assertFalse(results.get(2).get("active").asBoolean());
+        assertTrue(results.get(3).get("active").asBoolean());
+    }
+
+    @Test
+    void siFallaLaVerificacionDelTokenTambienSaleInactivo() throws Exception {
+        when(verifiedTokenCache.verify("roto")).thenThrow(new IllegalStateException("caché no disponible"));
+
+        JsonNode results = objectMapper.readTree(write(controller.introspect(List.of("roto"))));
+
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).get("active").asBoolean());
+    }
+
+    private void tokenOf(String token, String subject) {
+        when(verifiedTokenCache.verify(token)).thenReturn(new JwtUtils.VerifiedToken(subject, new Date(),
+                new Date(System.currentTimeMillis() + 60_000), Map.of()));
+    }
+
+    private static CustomUserDetails userWithRole(String username) {
+        return new CustomUserDetails(User.builder().id(1L).username(username).email(username + "@example.com")
+                .password("x").roles(Set.of(new Role(ERole.ROLE_USER))).build());
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.diver.autenticacion.Controllers;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Exceptions.GlobalExceptionHandler;
+import com.diver.autenticacion.Repository.ProductRepository;
+import com.diver.autenticacion.Services.ProductBulkService;
+import com.diver.autenticacion.Services.ProductSearchService;
+import com.diver.autenticacion.Services.Impl.ProductServiceImpl;
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Peticiones condicionales de productos con el {@link ProductServiceImpl} real: {@code If-None-Match} da 304 sin
+ * construir los DTO, y {@code If-Match} da 412 si la versión no es la actual (también en una carrera).
+ */
+class ProductControllerConditionalTest {
+
+    private static final String BODY = "{\"name\":\"Teclado\",\"description\":\"Mecánico\",\"price\":49.9}";
+
+    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+    private MockMvc mockMvc;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productMapper = mock(ProductMapper.class);
+        ProductServiceImpl productService = new ProductServiceImpl(productRepository, productMapper, mock(ProductSearchService.class));
+        ReflectionTestUtils.setField(productService, "defaultLimit", 20);
+        ReflectionTestUtils.setField(productService, "maxLimit", 100);
+
+        product = Product.builder().id(1L).name("Teclado").description("Mecánico").price(49.9).version(3L).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findPage(any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of(product));
+        // Como Hibernate al hacer flush: la actualización incrementa la versión.
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+        when(productMapper.toProductDTO(any(Product.class))).thenAnswer(invocation -> toDTO(invocation.getArgument(0)));
+        when(productMapper.toProductDTOList(anyList())).thenAnswer(invocation ->
+                invocation.<List<Product>>getArgument(0).stream().map(ProductControllerConditionalTest::toDTO).toList());
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, mock(ProductBulkService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void unProductoLlevaSuVersionComoETag() throws Exception {
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void ifNoneMatchConLaVersionActualDa304SinConstruirElDTO() throws Exception {
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productMapper, never()).toProductDTO(any(Product.class));
+    }
+
+    @Test
+    void ifNoneMatchConUnaVersionAntiguaDevuelveElProducto() throws Exception {
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void ifNoneMatchConLaPaginaActualDa304SinConstruirLosDTO() throws Exception {
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productMapper, times(1)).toProductDTOList(anyList());
+    }
+
+    @Test
+    void ifMatchConUnaVersionAntiguaDa412SinActualizar() throws Exception {
+        mockMvc.perform(put("/api/products/1").header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void ifMatchConUnETagDebilDa412() throws Exception {
+        mockMvc.perform(put("/api/products/1").header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void ifMatchConLaVersionActualActualizaYDevuelveLaNueva() throws Exception {
+        mockMvc.perform(put("/api/products/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void ifMatchConAsteriscoActualiza() throws Exception {
+        mockMvc.perform(put("/api/products/1").header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void unaCarreraConIfMatchDa412() throws Exception {
+        // La versión coincidía al leer, pero otra petición actualizó el producto antes del UPDATE ... WHERE version = ?
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        mockMvc.perform(put("/api/products/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void unaCarreraSinIfMatchDa409() throws Exception {
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isConflict());
+    }
+
+    private static ProductDTO toDTO(Product product) {
+        return ProductDTO.builder().id(product.getId()).name(product.getName()).description(product.getDescription())
+                .price(product.getPrice()).version(product.getVersion()).build();
+    }
+}
@@ -0,0 +1,282 @@
+package com.diver.autenticacion.Repository;
+
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.enums.EProductSort;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con {@code EXPLAIN} en un PostgreSQL real, sobre una tabla con {@value #SEED_ROWS} productos y
+ * estadísticas ({@code VACUUM ANALYZE}), que cada forma de filtro del catálogo la sirve su índice, y que en
+ * cualquier combinación de filtros, con cualquier orden y en la primera página o en las siguientes, al menos uno
+ * de los filtros activos se resuelve con su índice. Se omite si no hay Docker.
+ * <p>
+ * Se explica el plan con los valores reales ({@code plan_cache_mode = force_custom_plan}), todos selectivos en
+ * los datos sembrados. No basta con que no haya {@code Seq Scan}: siempre hay un índice ordenado
+ * ({@code products_pkey}, {@code idx_products_name_id} o {@code idx_products_price_id}) que el planificador puede
+ * recorrer entero filtrando fila a fila, que es el mismo recorrido completo con otro nombre. Sin
+ * {@code products-indexes.sql} estas comprobaciones fallan.
+ * </p>
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "jwt.secret=product-filter-index-test-secret-product-filter-index-test",
+        "jwt.denylist.path=target/product-filter-index-test-denylist.bin",
+        // Sin caché de consultas cada findPage llega a la base de datos y deja su SQL en SqlCapture.
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.diver.autenticacion.Repository.ProductFilterIndexTest$SqlCapture"
+})
+class ProductFilterIndexTest {
+
+    @Container
+    @ServiceConnection
+    // pg_trgm la crea el paso único del DBA (db/extensions.sql), no la aplicación.
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/extensions.sql");
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+    private static final int SEED_ROWS = 20_000;
+
+    // Valores de los filtros, todos selectivos con los datos sembrados (los precios van de 1 a 2000).
+    // "c9f0f895" empieza md5('8'): sus trigramas solo están en el producto 8.
+    private static final String NAME_PREFIX = "Teclado c9f0f895";
+    private static final String DESCRIPTION_TEXT = "oficina"; // uno de cada 1000 productos
+    private static final double MIN_PRICE = 1999.0;
+    private static final double MAX_PRICE = 2000.0;
+    private static final double MAX_PRICE_ALONE = 2.0; // sin precio mínimo, un máximo alto no filtraría nada
+    private static final int LIMIT = 21;
+
+    // El cursor, a mitad de la tabla: uno cerca del final ya es por sí solo la condición más selectiva.
+    private static final String AFTER_NAME = "Monitor";
+    private static final double AFTER_PRICE = 1000.0;
+    private static long afterId;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Guarda la última sentencia que Hibernate envía a la base de datos. */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            LAST.set(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Productos con nombres, descripciones y precios variados, y sus estadísticas: con la tabla vacía o
+     * diminuta el planificador no usa ningún índice y el plan no dice nada. {@code VACUUM} vacía además la lista
+     * de pendientes de los índices GIN, que recién cargada encarece su coste estimado.
+     */
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO products (name, description, price, version)
+                SELECT (ARRAY['Teclado', 'Ratón', 'Monitor', 'Cable', 'Altavoz', 'Webcam', 'Soporte', 'Funda'])[1 + i % 8]
+                           || ' ' || md5(i::text),
+                       'Accesorio ' || md5((i * 7)::text) || CASE WHEN i % 1000 = 0 THEN ' para oficina' ELSE '' END,
+                       1 + (i * 37) % 2000,
+                       0
+                FROM generate_series(1, ?) AS i
+                """, SEED_ROWS);
+        jdbcTemplate.execute("VACUUM ANALYZE products");
+        afterId = jdbcTemplate.queryForObject(
+                "SELECT percentile_disc(0.5) WITHIN GROUP (ORDER BY id) FROM products", Long.class);
+    }
+
+    /** Cada forma de filtro, sola, con el índice que tiene que servirla y la columna de su condición. */
+    static Stream<Arguments> formasDeFiltro() {
+        return Stream.of(
+                Arguments.of("prefijo del nombre", 4, "idx_products_name_trgm", "lower((name)::text)"),
+                Arguments.of("texto en la descripción", 8, "idx_products_description_trgm", "lower((description)::text)"),
+                Arguments.of("rango de precio", 1 | 2, "idx_products_price_id", "price"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("formasDeFiltro")
+    void cadaFormaDeFiltroLaSirveSuIndice(String shape, int filters, String index, String column) {
+        String sql = capturePage(filters, EProductSort.ID, Sort.Direction.ASC, false);
+
+        String plan = explain(sql, arguments(filters, EProductSort.ID, false));
+        assertTrue(indexCondition(plan, index).contains(column),
+                () -> "El filtro (" + shape + ") no lo sirve " + index + " con\n" + sql + "\n" + plan);
+    }
+
+    /** Todas las combinaciones de filtros (precio mínimo, máximo, nombre, descripción) × orden × dirección × página. */
+    static Stream<Arguments> consultas() {
+        List<Arguments> cases = new ArrayList<>();
+        for (int filters = 0; filters < 16; filters++) {
+            for (EProductSort sort : EProductSort.values()) {
+                for (Sort.Direction direction : Sort.Direction.values()) {
+                    cases.add(Arguments.of(filters, sort, direction, false));
+                    cases.add(Arguments.of(filters, sort, direction, true));
+                }
+            }
+        }
+        return cases.stream();
+    }
+
+    @ParameterizedTest(name = "filtros {0}, orden {1} {2}, con cursor: {3}")
+    @MethodSource("consultas")
+    void cadaCombinacionDeFiltrosUsaElIndiceDeAlgunFiltro(int filters, EProductSort sort, Sort.Direction direction, boolean withCursor) {
+        String sql = capturePage(filters, sort, direction, withCursor);
+
+        String plan = explain(sql, arguments(filters, sort, withCursor));
+        if (filters == 0) {
+            // Sin filtros, la página sale del índice del orden sin leer la tabla entera.
+            String index = switch (sort) {
+                case ID -> "products_pkey";
+                case NAME -> "idx_products_name_id";
+                case PRICE -> "idx_products_price_id";
+            };
+            assertTrue(plan.contains(" using " + index + " ") || plan.contains(" on " + index + " "),
+                    () -> "Sin el índice del orden con\n" + sql + "\n" + plan);
+            return;
+        }
+        List<String> served = new ArrayList<>();
+        if ((filters & (1 | 2)) != 0 && indexCondition(plan, "idx_products_price_id").contains("price")) {
+            served.add("precio");
+        }
+        if ((filters & 4) != 0 && indexCondition(plan, "idx_products_name_trgm").contains("lower((name)::text)")) {
+            served.add("nombre");
+        }
+        if ((filters & 8) != 0 && indexCondition(plan, "idx_products_description_trgm").contains("lower((description)::text)")) {
+            served.add("descripción");
+        }
+        assertFalse(served.isEmpty(), () -> "Ningún filtro activo usa su índice con\n" + sql + "\n" + plan);
+    }
+
+    /** Los filtros activos ({@code filters}: 1 precio mínimo, 2 máximo, 4 nombre, 8 descripción). */
+    private static Specification<Product> filter(int filters) {
+        boolean min = (filters & 1) != 0;
+        return ProductSpecifications.filter(
+                min ? MIN_PRICE : null,
+                (filters & 2) != 0 ? (min ? MAX_PRICE : MAX_PRICE_ALONE) : null,
+                (filters & 4) != 0 ? NAME_PREFIX : null,
+                (filters & 8) != 0 ? DESCRIPTION_TEXT : null);
+    }
+
+    private static Object afterValue(EProductSort sort) {
+        return switch (sort) {
+            case ID -> null;
+            case NAME -> AFTER_NAME;
+            case PRICE -> AFTER_PRICE;
+        };
+    }
+
+    /**
+     * Los valores de la consulta como literales SQL, en el orden en que los enlaza Hibernate: los filtros en el
+     * orden de {@link ProductSpecifications#filter}, la condición del cursor y el límite. {@link #explain} comprueba
+     * que el número coincide con el de parámetros de la sentencia.
+     */
+    private static List<String> arguments(int filters, EProductSort sort, boolean withCursor) {
+        List<String> values = new ArrayList<>();
+        if ((filters & 1) != 0) {
+            values.add(String.valueOf(MIN_PRICE));
+        }
+        if ((filters & 2) != 0) {
+            values.add(String.valueOf((filters & 1) != 0 ? MAX_PRICE : MAX_PRICE_ALONE));
+        }
+        if ((filters & 4) != 0) {
+            values.add("'" + NAME_PREFIX.toLowerCase(Locale.ROOT) + "%'");
+        }
+        if ((filters & 8) != 0) {
+            values.add("'%" + DESCRIPTION_TEXT + "%'");
+        }
+        if (withCursor) {
+            Object value = afterValue(sort);
+            if (value != null) {
+                String literal = value instanceof String text ? "'" + text + "'" : value.toString();
+                values.add(literal); // columna >= valor
+                values.add(literal); // columna > valor
+            }
+            values.add(String.valueOf(afterId));
+        }
+        values.add(String.valueOf(LIMIT));
+        return values;
+    }
+
+    private String capturePage(int filters, EProductSort sort, Sort.Direction direction, boolean withCursor) {
+        SqlCapture.LAST.remove();
+        productRepository.findPage(filter(filters), sort, direction, withCursor ? afterValue(sort) : null,
+                withCursor ? afterId : null, LIMIT);
+        String sql = SqlCapture.LAST.get();
+        assertNotNull(sql, "findPage no llegó a la base de datos");
+        return sql;
+    }
+
+    /**
+     * La condición con la que el plan recorre {@code index} ({@code Index Cond} del nodo que lo usa), o una
+     * cadena vacía si el plan no lo usa o lo recorre entero sin condición.
+     */
+    private static String indexCondition(String plan, String index) {
+        String[] lines = plan.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].contains(" on " + index) || lines[i].contains(" using " + index)) {
+                for (int j = i + 1; j < lines.length && !lines[j].contains("->"); j++) {
+                    if (lines[j].trim().startsWith("Index Cond:")) {
+                        return lines[j];
+                    }
+                }
+            }
+        }
+        return "";
+    }
+
+    /**
+     * {@code EXPLAIN} de la sentencia preparada ejecutada con {@code arguments}, con el plan para esos valores.
+     */
+    private String explain(String sql, List<String> arguments) {
+        int[] position = {0};
+        String numbered = PARAMETER.matcher(sql).replaceAll(match -> "\\$" + (++position[0]));
+        assertEquals(position[0], arguments.size(), () -> "Parámetros de\n" + sql);
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_custom_plan");
+                statement.execute("PREPARE product_page AS " + numbered);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE product_page(" + String.join(",", arguments) + ")")) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                } finally {
+                    statement.execute("DEALLOCATE product_page");
+                    statement.execute("RESET plan_cache_mode");
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.diver.autenticacion.Security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    private static final String SALT_AND_HASH = "N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    private final CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(12);
+
+    @Test
+    void soloSeRehaceUnHashConCosteMenor() {
+        assertTrue(encoder.upgradeEncoding("$2a$10$" + SALT_AND_HASH));
+        assertFalse(encoder.upgradeEncoding("$2a$12$" + SALT_AND_HASH));
+        // Una instancia con un coste mayor no debe provocar que esta lo baje en el siguiente login.
+        assertFalse(encoder.upgradeEncoding("$2a$13$" + SALT_AND_HASH));
+    }
+
+    @Test
+    void unHashIlegibleSeRehace() {
+        assertTrue(encoder.upgradeEncoding(null));
+        assertTrue(encoder.upgradeEncoding("plano"));
+        assertTrue(encoder.upgradeEncoding("$2a$xx$" + SALT_AND_HASH));
+    }
+
+    @Test
+    void laCalibracionNoSaleDelRango() {
+        // Ni un objetivo imposible baja del mínimo, ni uno enorme pasa del máximo.
+        assertEquals(10, CalibratedBCryptPasswordEncoder.calibrate(Duration.ofNanos(1), 10, 11));
+        assertEquals(11, CalibratedBCryptPasswordEncoder.calibrate(Duration.ofHours(1), 10, 11));
+    }
+}
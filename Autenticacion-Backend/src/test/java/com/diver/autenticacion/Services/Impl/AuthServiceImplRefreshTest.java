@@ -0,0 +1,107 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Exceptions.TokenRefreshException;
+import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.Security.RoleRegistry;
+import com.diver.autenticacion.Services.AuthService;
+import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Services.RefreshTokenService;
+import com.diver.autenticacion.config.CookieUtil;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import com.diver.autenticacion.mapper.UserMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * El refresco de sesión vuelve a comprobar al usuario como el login: si ya no es válido, la sesión se cierra.
+ */
+class AuthServiceImplRefreshTest {
+
+    private final User ana = User.builder().id(1L).username("ana").email("ana@example.com").password("x")
+            .roles(Set.of(new Role(ERole.ROLE_USER))).build();
+    private final HttpServletRequest request = new MockHttpServletRequest();
+
+    private RefreshTokenService refreshTokenService;
+    private CustomUserDetailsService userDetailsService;
+    private CookieUtil cookieUtil;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = mock(RefreshTokenService.class);
+        userDetailsService = mock(CustomUserDetailsService.class);
+        cookieUtil = mock(CookieUtil.class);
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.generateTokenFromUserDetails(any())).thenReturn("access-token");
+        when(cookieUtil.readRefreshTokenCookie(request)).thenReturn("refresh-actual");
+        when(refreshTokenService.rotate("refresh-actual"))
+                .thenReturn(new RefreshTokenService.Rotation(ana, "refresh-nuevo"));
+
+        authService = new AuthServiceImpl(mock(UserRepository.class), mock(RoleRegistry.class),
+                mock(PasswordEncoder.class), mock(AuthenticationManager.class), jwtUtils, mock(UserMapper.class),
+                cookieUtil, mock(TokenDenylist.class), refreshTokenService, userDetailsService);
+    }
+
+    @Test
+    void unRefrescoValidoDevuelveElTokenRotadoYLosRolesActuales() {
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(new CustomUserDetails(ana));
+
+        AuthService.AuthResult result = authService.refresh(request);
+
+        assertEquals("refresh-nuevo", result.refreshToken());
+        assertEquals("access-token", result.authResponse().getAccessToken());
+        assertEquals(Set.of("ROLE_USER"), result.authResponse().getRoles());
+        verify(refreshTokenService, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void siElUsuarioYaNoExisteSeRechazaYSeCierraLaSesion() {
+        when(userDetailsService.loadUserByUsername("ana")).thenThrow(new UsernameNotFoundException("ana"));
+
+        assertThrows(TokenRefreshException.class, () -> authService.refresh(request));
+
+        verify(refreshTokenService).revokeFamily("refresh-nuevo");
+    }
+
+    @Test
+    void siLaCuentaEstaDeshabilitadaSeRechazaYSeCierraLaSesion() {
+        CustomUserDetails disabled = mock(CustomUserDetails.class);
+        when(disabled.isAccountNonLocked()).thenReturn(true);
+        when(disabled.isEnabled()).thenReturn(false);
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(disabled);
+
+        assertThrows(TokenRefreshException.class, () -> authService.refresh(request));
+
+        verify(refreshTokenService).revokeFamily("refresh-nuevo");
+    }
+
+    @Test
+    void sinCookieNoSeRotaNada() {
+        when(cookieUtil.readRefreshTokenCookie(request)).thenReturn(null);
+
+        assertThrows(TokenRefreshException.class, () -> authService.refresh(request));
+
+        verify(refreshTokenService, never()).rotate(anyString());
+    }
+}
@@ -0,0 +1,84 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.reques.RegisterRequestDTO;
+import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Security.RoleRegistry;
+import com.diver.autenticacion.Services.AuthService;
+import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.Services.RefreshTokenService;
+import com.diver.autenticacion.config.CookieUtil;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import com.diver.autenticacion.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * El registro calcula el hash antes de tocar la base de datos y sin transacción abierta.
+ */
+class AuthServiceImplRegisterTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        RoleRegistry roleRegistry = mock(RoleRegistry.class);
+        when(roleRegistry.get(ERole.ROLE_USER)).thenReturn(new Role(ERole.ROLE_USER));
+        when(passwordEncoder.encode("secreto")).thenReturn("{bcrypt}hash");
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        authService = new AuthServiceImpl(userRepository, roleRegistry, passwordEncoder,
+                mock(AuthenticationManager.class), mock(JwtUtils.class), mock(UserMapper.class), mock(CookieUtil.class),
+                mock(TokenDenylist.class), mock(RefreshTokenService.class), mock(CustomUserDetailsService.class));
+    }
+
+    @Test
+    void elHashSeCalculaAntesDelAltaYSinTransaccion() throws Exception {
+        authService.register(request("ana"));
+
+        InOrder order = inOrder(passwordEncoder, userRepository);
+        order.verify(passwordEncoder).encode("secreto");
+        order.verify(userRepository).saveAndFlush(any(User.class));
+        // Una transacción aquí tomaría la conexión antes de esperar en el pool de hash.
+        assertNull(AuthServiceImpl.class.getMethod("register", RegisterRequestDTO.class).getAnnotation(Transactional.class));
+        assertNull(AuthServiceImpl.class.getAnnotation(Transactional.class));
+    }
+
+    @Test
+    void unNombreRepetidoSigueDandoElMensajeDeSiempre() {
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint (username)"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> authService.register(request("ana")));
+
+        assertEquals("Error: El nombre de usuario ya está en uso.", error.getMessage());
+    }
+
+    private static RegisterRequestDTO request(String username) {
+        RegisterRequestDTO request = new RegisterRequestDTO();
+        request.setUsername(username);
+        request.setEmail(username + "@example.com");
+        request.setPassword("secreto");
+        return request;
+    }
+}
@@ -0,0 +1,217 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO.ItemResult;
+import com.diver.autenticacion.Dto.response.ProductBulkResultDTO.Status;
+import com.diver.autenticacion.Exceptions.ResourceNotFoundException;
+import com.diver.autenticacion.Services.ProductBulkService;
+import com.diver.autenticacion.Services.ProductService;
+import com.diver.autenticacion.entities.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Resultado por elemento de la carga masiva contra un PostgreSQL real (las escrituras son SQL de PostgreSQL).
+ * Se omite si no hay Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "jwt.secret=product-bulk-service-test-secret-product-bulk-service-test",
+        "jwt.denylist.path=target/product-bulk-service-test-denylist.bin",
+        // Bloques pequeños para que una carga corta ya tenga varios.
+        "products.bulk.chunkSize=3"
+})
+class ProductBulkServiceImplTest {
+
+    @Container
+    @ServiceConnection
+    // pg_trgm la crea el paso único del DBA (db/extensions.sql), no la aplicación.
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/extensions.sql");
+
+    @Autowired
+    private ProductBulkService bulkService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @MockitoSpyBean
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Test
+    void losElementosInvalidosSeRechazanSinFrenarAlResto() {
+        long existing = create("Soporte");
+
+        ProductBulkResultDTO result = bulkService.upsert(Arrays.asList(
+                request(null, unique("Teclado"), 30),
+                null,
+                request(null, " ", 10),
+                request(null, unique("Gratis"), 0),
+                request(existing, "Soporte doble", 15),
+                request(existing, "Soporte triple", 20)));
+
+        assertEquals(List.of(Status.CREATED, Status.INVALID, Status.INVALID, Status.INVALID, Status.UPDATED, Status.INVALID),
+                statuses(result));
+        assertEquals(1, result.created());
+        assertEquals(1, result.updated());
+        assertEquals(4, result.failed());
+        assertEquals("Soporte doble", nameOf(existing));
+    }
+
+    @Test
+    void unIdQueNoExisteEsNotFound() {
+        long existing = create("Cable");
+        long missing = existing + 1_000_000;
+
+        ProductBulkResultDTO upserted = bulkService.upsert(List.of(request(missing, "Cable", 5)));
+        assertEquals(List.of(Status.NOT_FOUND), statuses(upserted));
+
+        ProductBulkResultDTO deleted = bulkService.delete(Arrays.asList(existing, missing, existing, null));
+        assertEquals(List.of(Status.DELETED, Status.NOT_FOUND, Status.INVALID, Status.INVALID), statuses(deleted));
+        assertEquals(0, count(existing));
+    }
+
+    @Test
+    void siOtraPeticionCambiaElProductoDuranteLaCargaEsConflict() {
+        long existing = create("Monitor");
+        // Otra petición actualiza el producto justo después de que la carga lea su versión.
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            jdbcTemplate.update("UPDATE products SET name = 'Monitor ajeno', version = version + 1 WHERE id = ?", existing);
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT id, version FROM products"), anyMap(), any(RowCallbackHandler.class));
+
+        ProductBulkResultDTO result = bulkService.upsert(List.of(
+                request(existing, "Monitor de la carga", 120),
+                request(null, unique("Monitor nuevo"), 90)));
+
+        assertEquals(List.of(Status.CONFLICT, Status.CREATED), statuses(result));
+        assertEquals("Monitor ajeno", nameOf(existing));
+    }
+
+    @Test
+    void siElBatchFallaSeReintentaElementoAElemento() {
+        long existing = create("Altavoz");
+        String created = unique("Auriculares");
+
+        // PostgreSQL no admite el carácter NUL en un texto: el batch entero falla y solo ese elemento se pierde.
+        ProductBulkResultDTO result = bulkService.upsert(List.of(
+                request(null, created, 40),
+                request(null, "Roto\u0000", 10),
+                request(existing, "Altavoz estéreo", 60)));
+
+        assertEquals(List.of(Status.CREATED, Status.FAILED, Status.UPDATED), statuses(result));
+        assertEquals(created, nameOf(result.items().get(0).id()));
+        assertEquals("Altavoz estéreo", nameOf(existing));
+        assertEquals(1L, result.items().get(2).version());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM products WHERE name LIKE 'Roto%'", Long.class));
+    }
+
+    @Test
+    void laCacheNoSigueDevolviendoElProductoAnterior() {
+        long existing = create("Ratón");
+        // Dos lecturas: la segunda sale de la caché de segundo nivel.
+        productService.findById(existing, etag -> false);
+        assertEquals("Ratón", productService.findById(existing, etag -> false).getName());
+
+        bulkService.upsert(List.of(request(existing, "Ratón vertical", 35)));
+        ProductDTO updated = productService.findById(existing, etag -> false);
+        assertEquals("Ratón vertical", updated.getName());
+        assertEquals(1, updated.getVersion());
+
+        bulkService.delete(List.of(existing));
+        assertThrows(ResourceNotFoundException.class, () -> productService.findById(existing, etag -> false));
+    }
+
+    @Test
+    void unaLecturaConcurrenteNoDejaElProductoAnteriorEnLaCache() throws Exception {
+        long existing = create("Webcam");
+        productService.findById(existing, etag -> false);
+
+        // Una lectura que empieza antes de la carga y, por su instantánea, lee la fila anterior después del
+        // commit: sin el bloqueo de la caché la guardaría ahí y el producto viejo se serviría hasta expirar.
+        TransactionTemplate reader = new TransactionTemplate(transactionManager);
+        reader.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        String seenByReader = reader.execute(status -> {
+            entityManager.createNativeQuery("SELECT count(*) FROM products").getSingleResult();
+            try (ExecutorService writer = Executors.newSingleThreadExecutor()) {
+                writer.submit(() -> bulkService.upsert(List.of(request(existing, "Webcam HD", 45)))).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+            return entityManager.find(Product.class, existing).getName();
+        });
+
+        assertEquals("Webcam", seenByReader);
+        assertEquals("Webcam HD", productService.findById(existing, etag -> false).getName());
+    }
+
+    private long create(String name) {
+        ProductBulkResultDTO result = bulkService.upsert(List.of(request(null, name, 10)));
+        return result.items().get(0).id();
+    }
+
+    private String nameOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT name FROM products WHERE id = ?", String.class, id);
+    }
+
+    private long count(long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM products WHERE id = ?", Long.class, id);
+    }
+
+    private static ProductRequestDTO request(Long id, String name, double price) {
+        return ProductRequestDTO.builder().id(id).name(name).description("Descripción de " + name).price(price).build();
+    }
+
+    private static String unique(String name) {
+        return name + " " + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static List<Status> statuses(ProductBulkResultDTO result) {
+        List<Status> statuses = new ArrayList<>();
+        for (ItemResult item : result.items()) {
+            statuses.add(item.status());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,67 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.enums.EProductSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCursorTest {
+
+    @Test
+    void unCursorPorIdVuelveIgual() {
+        assertRoundTrip(new ProductCursor(EProductSort.ID, Sort.Direction.DESC, 42L, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Teclado", "Teclado | Ratón", "|", "a||b|", "Ñandú ☕", ""})
+    void unCursorPorNombreVuelveIgualAunqueElNombreLleveBarras(String name) {
+        assertRoundTrip(new ProductCursor(EProductSort.NAME, Sort.Direction.ASC, 7L, name));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, 0.1, 19.99, 1.0E-7, 1.0E10, 123456789.123, Double.MIN_VALUE, Double.MAX_VALUE})
+    void unCursorPorPrecioVuelveConElMismoDouble(double price) {
+        ProductCursor decoded = assertRoundTrip(new ProductCursor(EProductSort.PRICE, Sort.Direction.DESC, 3L, price));
+
+        // El valor exacto, no uno redondeado: si no, la página siguiente repetiría o saltaría productos.
+        assertEquals(Double.doubleToLongBits(price), Double.doubleToLongBits((Double) decoded.value()));
+    }
+
+    @Test
+    void elCursorEsSeguroEnUnaUrl() {
+        String encoded = new ProductCursor(EProductSort.NAME, Sort.Direction.ASC, 1L, "¿?&=/+ |").encode();
+
+        assertFalse(encoded.matches(".*[^A-Za-z0-9_-].*"), encoded);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"no es base64!", "", "QUJD"})
+    void unCursorQueNoEsBase64DeUnCursorEsInvalido(String cursor) {
+        assertInvalid(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"PRECIO|ASC|1|10", "PRICE|ARRIBA|1|10", "PRICE|ASC|uno|10", "PRICE|ASC|1|diez", "PRICE|ASC|1", "NAME|ASC"})
+    void unCursorManipuladoEsInvalido(String raw) {
+        assertInvalid(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ProductCursor assertRoundTrip(ProductCursor cursor) {
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+        assertEquals(cursor, decoded);
+        return decoded;
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(cursor));
+        assertEquals("Error: Cursor de paginación inválido.", error.getMessage());
+    }
+}
@@ -0,0 +1,58 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductETagsTest {
+
+    @Test
+    void elETagDeUnProductoEsSuVersionEntreComillas() {
+        assertEquals("\"3\"", ProductETags.of(product(1L, 3L)));
+    }
+
+    @Test
+    void ifMatchCoincideConElETagActualOConAlgunoDeLaLista() {
+        assertTrue(ProductETags.matches("\"3\"", "\"3\""));
+        assertTrue(ProductETags.matches("\"1\", \"3\"", "\"3\""));
+        assertTrue(ProductETags.matches(" \"3\" ", "\"3\""));
+    }
+
+    @Test
+    void unAsteriscoSiempreCoincide() {
+        assertTrue(ProductETags.matches("*", "\"3\""));
+        assertTrue(ProductETags.matches("\"1\", *", "\"3\""));
+    }
+
+    @Test
+    void unETagAntiguoNoCoincide() {
+        assertFalse(ProductETags.matches("\"2\"", "\"3\""));
+        assertFalse(ProductETags.matches("\"1\", \"2\"", "\"3\""));
+    }
+
+    @Test
+    void unETagDebilNuncaCoincide() {
+        // If-Match usa la comparación fuerte (RFC 9110).
+        assertFalse(ProductETags.matches("W/\"3\"", "\"3\""));
+    }
+
+    @Test
+    void elETagDeUnaPaginaCambiaConLasVersionesYConElCursor() {
+        String page = ProductETags.ofPage(List.of(product(1L, 0L), product(2L, 0L)), "c");
+
+        assertEquals(page, ProductETags.ofPage(List.of(product(1L, 0L), product(2L, 0L)), "c"));
+        assertNotEquals(page, ProductETags.ofPage(List.of(product(1L, 0L), product(2L, 1L)), "c"));
+        assertNotEquals(page, ProductETags.ofPage(List.of(product(1L, 0L), product(3L, 0L)), "c"));
+        assertNotEquals(page, ProductETags.ofPage(List.of(product(1L, 0L), product(2L, 0L)), null));
+    }
+
+    private static Product product(Long id, long version) {
+        return Product.builder().id(id).name("Teclado").price(10.0).version(version).build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductFilterDTO;
+import com.diver.autenticacion.Dto.reques.ProductRequestDTO;
+import com.diver.autenticacion.Dto.response.ProductPageDTO;
+import com.diver.autenticacion.Services.ProductService;
+import com.diver.autenticacion.config.HibernateCacheConfig;
+import com.diver.autenticacion.enums.EProductSort;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lecturas de productos servidas por la caché de segundo nivel ({@link HibernateCacheConfig}), contadas con las
+ * estadísticas de Hibernate: una lectura repetida no ejecuta sentencias, y una escritura a través del servicio
+ * invalida las páginas del catálogo. Se omite si no hay Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "jwt.secret=product-cache-test-secret-product-cache-test-secret",
+        "jwt.denylist.path=target/product-cache-test-denylist.bin"
+})
+class ProductServiceImplCacheTest {
+
+    @Container
+    @ServiceConnection
+    // pg_trgm la crea el paso único del DBA (db/extensions.sql), no la aplicación.
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/extensions.sql");
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    // Cada prueba filtra por su propio prefijo: solo ve sus productos.
+    private String tag;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        tag = UUID.randomUUID().toString().substring(0, 12);
+    }
+
+    @Test
+    void unProductoYaLeidoNoVuelveABaseDeDatos() {
+        long id = create("Teclado");
+        productService.findById(id, etag -> false);
+
+        long statements = statements();
+        long hits = statistics.getDomainDataRegionStatistics(HibernateCacheConfig.PRODUCTS_REGION).getHitCount();
+        ProductDTO product = productService.findById(id, etag -> false);
+
+        assertEquals(tag + " Teclado", product.getName());
+        assertEquals(0, statements() - statements);
+        assertEquals(hits + 1, statistics.getDomainDataRegionStatistics(HibernateCacheConfig.PRODUCTS_REGION).getHitCount());
+    }
+
+    @Test
+    void unaPaginaRepetidaSaleDeLaCacheDeConsultasSinSentencias() {
+        create("Teclado");
+        create("Ratón");
+        ProductPageDTO first = page();
+
+        long statements = statements();
+        long hits = catalogHits();
+        ProductPageDTO second = page();
+
+        assertEquals(names(first), names(second));
+        assertEquals(0, statements() - statements, "la página y sus productos deberían salir de la caché");
+        assertEquals(hits + 1, catalogHits());
+    }
+
+    @Test
+    void actualizarUnProductoInvalidaLasPaginasCacheadas() {
+        long id = create("Teclado");
+        create("Ratón");
+        page();
+        page();
+
+        productService.update(id, request("Teclado mecánico"), null);
+        long statements = statements();
+        long misses = catalogMisses();
+        ProductPageDTO page = page();
+
+        assertTrue(statements() - statements >= 1, "la página debería volver a consultarse");
+        assertEquals(misses + 1, catalogMisses());
+        assertEquals(List.of(tag + " Ratón", tag + " Teclado mecánico"), names(page));
+    }
+
+    @Test
+    void borrarUnProductoInvalidaLasPaginasCacheadas() {
+        long id = create("Teclado");
+        create("Ratón");
+        page();
+        page();
+
+        productService.deleteById(id);
+        long statements = statements();
+        long misses = catalogMisses();
+        ProductPageDTO page = page();
+
+        assertTrue(statements() - statements >= 1, "la página debería volver a consultarse");
+        assertEquals(misses + 1, catalogMisses());
+        assertEquals(List.of(tag + " Ratón"), names(page));
+    }
+
+    private long create(String name) {
+        return productService.save(request(name)).getId();
+    }
+
+    private ProductRequestDTO request(String name) {
+        return ProductRequestDTO.builder().name(tag + " " + name).description("Periférico").price(25.0).build();
+    }
+
+    private ProductPageDTO page() {
+        return productService.findPage(new ProductFilterDTO(null, null, tag, null), null, 10,
+                EProductSort.NAME, null, etag -> false);
+    }
+
+    private long statements() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long catalogHits() {
+        return statistics.getQueryRegionStatistics(HibernateCacheConfig.PRODUCT_CATALOG_REGION).getHitCount();
+    }
+
+    private long catalogMisses() {
+        return statistics.getQueryRegionStatistics(HibernateCacheConfig.PRODUCT_CATALOG_REGION).getMissCount();
+    }
+
+    private static List<String> names(ProductPageDTO page) {
+        return page.getItems().stream().map(ProductDTO::getName).toList();
+    }
+}
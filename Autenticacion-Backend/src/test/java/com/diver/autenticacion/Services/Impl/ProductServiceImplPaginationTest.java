@@ -0,0 +1,148 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Controllers.ProductController;
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.reques.ProductFilterDTO;
+import com.diver.autenticacion.Dto.response.ProductPageDTO;
+import com.diver.autenticacion.Exceptions.GlobalExceptionHandler;
+import com.diver.autenticacion.Repository.ProductRepository;
+import com.diver.autenticacion.Services.ProductBulkService;
+import com.diver.autenticacion.Services.ProductService;
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.enums.EProductSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recorrido del catálogo página a página contra un PostgreSQL real: con nombres y precios repetidos, cada
+ * producto sale exactamente una vez y en el mismo orden que en una sola página. Se omite si no hay Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "jwt.secret=product-pagination-test-secret-product-pagination-test",
+        "jwt.denylist.path=target/product-pagination-test-denylist.bin"
+})
+class ProductServiceImplPaginationTest {
+
+    @Container
+    @ServiceConnection
+    // pg_trgm la crea el paso único del DBA (db/extensions.sql), no la aplicación.
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/extensions.sql");
+
+    private static final int PRODUCTS = 40;
+    private static final int PAGE_SIZE = 6;
+    // Pocos valores distintos, para que casi todas las páginas corten entre productos empatados.
+    private static final List<String> NAMES = List.of("a", "b|c", "b", "a|");
+    private static final List<Double> PRICES = List.of(2.5, 0.1, 19.99, 2.5, 1.0E7);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Cada prueba filtra por su propio prefijo: solo ve sus productos.
+    private String tag;
+    private List<Long> seeded;
+
+    @BeforeEach
+    void seed() {
+        tag = UUID.randomUUID().toString().substring(0, 12);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Product.builder()
+                    .name(tag + " " + NAMES.get(i % NAMES.size()))
+                    .price(PRICES.get(i % PRICES.size()))
+                    .build());
+        }
+        seeded = productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    static Stream<Arguments> ordenes() {
+        return Arrays.stream(EProductSort.values())
+                .flatMap(sort -> Stream.of(Arguments.of(sort, Sort.Direction.ASC), Arguments.of(sort, Sort.Direction.DESC)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("ordenes")
+    void cadaProductoSaleUnaSolaVezYEnOrden(EProductSort sort, Sort.Direction direction) {
+        List<Long> walked = new ArrayList<>();
+        ProductPageDTO page = page(null, PAGE_SIZE, sort, direction);
+        int pages = 1;
+        walked.addAll(ids(page));
+        while (page.getNextCursor() != null) {
+            // Las páginas siguientes no repiten el orden: lo fija el cursor.
+            page = page(page.getNextCursor(), PAGE_SIZE, null, null);
+            walked.addAll(ids(page));
+            pages++;
+            assertTrue(pages <= PRODUCTS, "el recorrido no termina");
+        }
+
+        assertEquals(PRODUCTS, walked.size(), "productos repetidos o perdidos: " + walked);
+        assertEquals(new HashSet<>(seeded), new HashSet<>(walked));
+        assertEquals((PRODUCTS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+        // Mismo orden que el de PostgreSQL sin paginar (el del nombre depende de la collation de la base de datos).
+        ProductPageDTO all = page(null, PRODUCTS, sort, direction);
+        assertNull(all.getNextCursor());
+        assertEquals(ids(all), walked);
+    }
+
+    @Test
+    void unCursorDeOtroOrdenEsUnErrorDelCliente() throws Exception {
+        String cursor = page(null, PAGE_SIZE, EProductSort.NAME, Sort.Direction.ASC).getNextCursor();
+        assertNotNull(cursor);
+
+        assertThrows(IllegalArgumentException.class, () -> page(cursor, PAGE_SIZE, EProductSort.PRICE, null));
+        assertThrows(IllegalArgumentException.class, () -> page(cursor, PAGE_SIZE, null, Sort.Direction.DESC));
+        // Repetir el mismo orden junto al cursor sí está permitido.
+        assertEquals(PAGE_SIZE, page(cursor, PAGE_SIZE, EProductSort.NAME, Sort.Direction.ASC).getItems().size());
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, productBulkService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        mockMvc.perform(get("/api/products").param("name", tag).param("cursor", cursor).param("sort", "price"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products").param("name", tag).param("cursor", "!" + cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ProductPageDTO page(String cursor, int limit, EProductSort sort, Sort.Direction direction) {
+        return productService.findPage(new ProductFilterDTO(null, null, tag, null), cursor, limit, sort, direction,
+                etag -> false);
+    }
+
+    private static List<Long> ids(ProductPageDTO page) {
+        return page.getItems().stream().map(ProductDTO::getId).toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.diver.autenticacion.Services.Impl;
+
+import com.diver.autenticacion.Exceptions.TokenRefreshException;
+import com.diver.autenticacion.Repository.RefreshTokenRepository;
+import com.diver.autenticacion.Repository.UserRepository;
+import com.diver.autenticacion.Services.RefreshTokenService;
+import com.diver.autenticacion.entities.RefreshToken;
+import com.diver.autenticacion.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotación de refresh tokens sobre una tabla en memoria: el repositorio simulado guarda las filas por hash y
+ * aplica {@code markRotated} y {@code revokeFamily} como lo harían sus UPDATE condicionales.
+ */
+class RefreshTokenServiceImplTest {
+
+    private final User ana = User.builder().id(1L).username("ana").roles(Set.of()).build();
+    private final Map<String, RefreshToken> rows = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private RefreshTokenRepository repository;
+    private RefreshTokenServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.getReferenceById(1L)).thenReturn(ana);
+
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            rows.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        when(repository.markRotated(anyLong(), any(Instant.class))).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            for (RefreshToken token : rows.values()) {
+                if (token.getId().equals(id) && token.getRotatedAt() == null && !token.isRevoked()) {
+                    token.setRotatedAt(invocation.getArgument(1));
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        when(repository.revokeFamily(any(UUID.class))).thenAnswer(invocation -> {
+            UUID family = invocation.getArgument(0);
+            int revoked = 0;
+            for (RefreshToken token : rows.values()) {
+                if (token.getFamilyId().equals(family) && !token.isRevoked()) {
+                    token.setRevoked(true);
+                    revoked++;
+                }
+            }
+            return revoked;
+        });
+
+        service = new RefreshTokenServiceImpl(repository, userRepository);
+        ReflectionTestUtils.setField(service, "refreshExpirationMs", 600_000L);
+    }
+
+    @Test
+    void rotarCambiaElTokenPorOtroDeLaMismaFamilia() {
+        String first = service.issue(1L);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertEquals(ana, rotation.user());
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(2, rows.size());
+        assertEquals(1, families().size(), "El token nuevo debe pertenecer a la misma familia");
+        assertTrue(rows.values().stream().noneMatch(RefreshToken::isRevoked));
+        // En la base de datos solo hay hashes, nunca el valor entregado al cliente.
+        assertTrue(rows.keySet().stream().noneMatch(hash -> hash.equals(first) || hash.equals(rotation.refreshToken())));
+
+        // El token nuevo también se puede rotar.
+        service.rotate(rotation.refreshToken());
+        assertEquals(3, rows.size());
+    }
+
+    @Test
+    void reutilizarUnTokenYaRotadoRevocaTodaLaFamilia() {
+        String first = service.issue(1L);
+        String second = service.rotate(first).refreshToken();
+        String otherSession = service.issue(1L);
+
+        assertThrows(TokenRefreshException.class, () -> service.rotate(first));
+
+        // La familia entera queda revocada, incluido el token que el cliente legítimo tenía en su cookie.
+        assertThrows(TokenRefreshException.class, () -> service.rotate(second));
+        // Las demás sesiones del usuario no se tocan.
+        service.rotate(otherSession);
+    }
+
+    @Test
+    void perderLaCarreraDeRotacionCuentaComoReutilizacion() {
+        String first = service.issue(1L);
+        RefreshToken stored = rows.values().iterator().next();
+        // Otra petición rota el mismo token entre la lectura y el UPDATE condicional.
+        when(repository.markRotated(anyLong(), any(Instant.class))).thenReturn(0);
+
+        assertThrows(TokenRefreshException.class, () -> service.rotate(first));
+
+        verify(repository).revokeFamily(stored.getFamilyId());
+        assertTrue(stored.isRevoked());
+    }
+
+    @Test
+    void unTokenRevocadoSeRechazaSinRotarNada() {
+        String first = service.issue(1L);
+        service.revokeFamily(first);
+
+        assertThrows(TokenRefreshException.class, () -> service.rotate(first));
+
+        verify(repository, never()).markRotated(anyLong(), any(Instant.class));
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void unTokenExpiradoODesconocidoSeRechaza() {
+        String first = service.issue(1L);
+        rows.values().iterator().next().setExpiresAt(Instant.now().minusSeconds(1));
+
+        assertThrows(TokenRefreshException.class, () -> service.rotate(first));
+        assertThrows(TokenRefreshException.class, () -> service.rotate("no-existe"));
+        verify(repository, never()).markRotated(anyLong(), any(Instant.class));
+    }
+
+    private Collection<UUID> families() {
+        return rows.values().stream().map(RefreshToken::getFamilyId).distinct().toList();
+    }
+}
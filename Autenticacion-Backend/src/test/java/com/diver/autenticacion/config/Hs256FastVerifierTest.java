@@ -0,0 +1,172 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * El camino rápido debe dar exactamente el mismo resultado que jjwt: los mismos claims para un token válido y
+ * el mismo rechazo (o dejar el token a jjwt) para cualquier otro.
+ */
+class Hs256FastVerifierTest {
+
+    // 64 bytes: también es una clave válida para HS512, así que un token HS512 solo se rechaza por su alg.
+    private static final String SECRET = "fast-path-test-secret-fast-path-test-secret-fast-path-test-secret";
+
+    private final JwtUtils fast = jwtUtils(true);
+    private final JwtUtils jjwt = jwtUtils(false);
+    private final Hs256FastVerifier verifier = new Hs256FastVerifier(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void unTokenValidoDaLosMismosClaimsQueJjwt() {
+        String token = fast.generateTokenFromUserDetails(principal());
+
+        JwtUtils.VerifiedToken expected = jjwt.verify(token);
+        JwtUtils.VerifiedToken actual = verifier.tryVerify(token);
+
+        assertNotNull(actual, "El token que emite JwtUtils debe resolverse por el camino rápido");
+        assertEquals(expected.subject(), actual.subject());
+        assertEquals(expected.issuedAt(), actual.issuedAt());
+        assertEquals(expected.expiration(), actual.expiration());
+        assertEquals(expected.id(), actual.id());
+        assertEquals(expected.claims().get(JwtUtils.CLAIM_ROLES), actual.claims().get(JwtUtils.CLAIM_ROLES));
+        assertEquals(((Number) expected.claims().get(JwtUtils.CLAIM_USER_ID)).longValue(),
+                actual.claims().get(JwtUtils.CLAIM_USER_ID));
+        assertEquals(expected.claims().get(JwtUtils.CLAIM_EMAIL), actual.claims().get(JwtUtils.CLAIM_EMAIL));
+    }
+
+    @Test
+    void unaFirmaAlteradaSeRechazaIgualQueConJjwt() {
+        String token = fast.generateTokenFromUsername("ana");
+        int lastDot = token.lastIndexOf('.');
+        char last = token.charAt(lastDot + 1);
+        String tampered = token.substring(0, lastDot + 1) + (last == 'A' ? 'B' : 'A') + token.substring(lastDot + 2);
+
+        assertSameRejection(tampered, io.jsonwebtoken.security.SignatureException.class);
+    }
+
+    @Test
+    void unPayloadAlteradoSeRechazaIgualQueConJjwt() {
+        String[] parts = fast.generateTokenFromUsername("ana").split("\\.");
+        String otherPayload = fast.generateTokenFromUsername("admin").split("\\.")[1];
+
+        assertSameRejection(parts[0] + "." + otherPayload + "." + parts[2],
+                io.jsonwebtoken.security.SignatureException.class);
+    }
+
+    @Test
+    void otroAlgoritmoNoPasaPorElCaminoRapidoYSeRechaza() throws Exception {
+        String payload = fast.generateTokenFromUsername("ana").split("\\.")[1];
+
+        String hs512 = signed("{\"alg\":\"HS512\"}", payload, "HmacSHA512");
+        assertNull(verifier.tryVerify(hs512));
+        assertSameRejection(hs512, UnsupportedJwtException.class);
+
+        String none = base64("{\"alg\":\"none\"}") + "." + payload + ".";
+        assertNull(verifier.tryVerify(none));
+        assertSameRejection(none, UnsupportedJwtException.class);
+    }
+
+    @Test
+    void unTokenExpiradoSeDejaAJjwtQueLanzaLaExpiracion() {
+        String expired = Jwts.builder()
+                .setSubject("ana")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(verifier.tryVerify(expired));
+        assertSameRejection(expired, ExpiredJwtException.class);
+    }
+
+    @Test
+    void elPoolDeEstadosNoMezclaTokensEntreHilosVirtuales() throws Exception {
+        // Pool de 2 estados para 1000 verificaciones concurrentes: se crean estados de más y se descartan.
+        Hs256FastVerifier pooled = new Hs256FastVerifier(SECRET.getBytes(StandardCharsets.UTF_8), 2);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            tokens.add(fast.generateTokenFromUsername("user-" + i + "-" + "x".repeat(i % 300)));
+        }
+
+        List<Future<String>> subjects = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String token : tokens) {
+                subjects.add(executor.submit(() -> pooled.tryVerify(token).subject()));
+            }
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals("user-" + i + "-" + "x".repeat(i % 300), subjects.get(i).get());
+        }
+    }
+
+    private void assertSameRejection(String token, Class<? extends JwtException> expected) {
+        JwtException byFastPath = assertThrows(JwtException.class, () -> fast.verify(token));
+        JwtException byJjwt = assertThrows(JwtException.class, () -> jjwt.verify(token));
+        assertEquals(expected, byFastPath.getClass());
+        assertEquals(expected, byJjwt.getClass());
+    }
+
+    private static String signed(String header, String payload, String macAlgorithm) throws Exception {
+        String signingInput = base64(header) + "." + payload;
+        Mac mac = Mac.getInstance(macAlgorithm);
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), macAlgorithm));
+        byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CustomUserDetails principal() {
+        return new CustomUserDetails(User.builder()
+                .id(7L)
+                .username("ana")
+                .email("ana@example.com")
+                .password("x")
+                .roles(Set.of(new Role(ERole.ROLE_USER), new Role(ERole.ROLE_ADMIN)))
+                .build());
+    }
+
+    private static JwtUtils jwtUtils(boolean fastPath) {
+        JwtSigningKeys signingKeys = new JwtSigningKeys();
+        ReflectionTestUtils.setField(signingKeys, "algorithm", "HS256");
+        ReflectionTestUtils.setField(signingKeys, "retentionMs", 600_000L);
+        signingKeys.init();
+
+        JwtUtils jwtUtils = new JwtUtils(signingKeys);
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 420_000);
+        ReflectionTestUtils.setField(jwtUtils, "stateless", true);
+        ReflectionTestUtils.setField(jwtUtils, "fastPathEnabled", fastPath);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
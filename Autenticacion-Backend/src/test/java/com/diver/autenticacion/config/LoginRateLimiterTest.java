@@ -0,0 +1,135 @@
+package com.diver.autenticacion.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+    @Test
+    void permiteExactamenteLaCapacidadBajoContencion() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        LoginRateLimiter limiter = new LoginRateLimiter(10, Duration.ofHours(1), 1_000, 16, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                if (limiter.tryAcquire("admin") == 0) {
+                    allowed.incrementAndGet();
+                }
+            }
+        });
+
+        // Con el reloj parado no hay relleno: ni un intento más que la capacidad, aunque compitan 32 hilos.
+        assertEquals(10, allowed.get());
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void cadaClaveTieneSuPropioBucketYElTamanoEstaAcotado() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        LoginRateLimiter limiter = new LoginRateLimiter(3, Duration.ofHours(1), 4_096, 64, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                // 64 claves compartidas por todos los hilos, más claves de un solo uso que fuerzan desalojos LRU.
+                if (limiter.tryAcquire("user-" + (i % 64)) == 0) {
+                    allowed.incrementAndGet();
+                }
+                limiter.tryAcquire("ip-" + thread + "-" + i);
+            }
+        });
+
+        assertTrue(limiter.size() <= 4_096, "El número de buckets debe respetar maxEntries: " + limiter.size());
+        // Las claves compartidas pueden desalojarse y volver llenas, pero nunca dar más de su capacidad por vida en el LRU.
+        assertTrue(allowed.get() >= 64 * 3, "Cada clave compartida debe admitir al menos su capacidad: " + allowed.get());
+    }
+
+    @Test
+    void losFallosVacianElBucketMasRapidoQueLosExitos() {
+        AtomicLong clock = new AtomicLong();
+        Duration refillPeriod = Duration.ofSeconds(60);
+        LoginRateLimiter limiter = new LoginRateLimiter(5, refillPeriod, 1_000, 4, clock::get);
+
+        int successes = 0;
+        while (limiter.tryAcquire("ok") == 0) {
+            successes++;
+        }
+        int failures = 0;
+        while (limiter.tryAcquire("ko") == 0) {
+            failures++;
+            limiter.penalize("ko", 2);
+        }
+        assertEquals(5, successes);
+        assertEquals(2, failures);
+
+        // Con saldo negativo la espera es mayor que la de un bucket simplemente vacío.
+        assertTrue(limiter.tryAcquire("ko") > limiter.tryAcquire("ok"));
+
+        // Pasado un periodo completo de relleno, ambos vuelven a admitir intentos.
+        clock.addAndGet(refillPeriod.toNanos() * 2);
+        assertEquals(0, limiter.tryAcquire("ok"));
+        assertEquals(0, limiter.tryAcquire("ko"));
+    }
+
+    @Test
+    void penalizacionesConcurrentesNoPierdenActualizaciones() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        LoginRateLimiter limiter = new LoginRateLimiter(1_000_000, Duration.ofHours(1), 1_000, 8, clock::get);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                limiter.penalize("victima", 1);
+            }
+        });
+
+        // 32 × 2000 = 64000 tokens retirados de 1000000: quedan exactamente 936000 intentos.
+        int allowed = 0;
+        while (limiter.tryAcquire("victima") == 0) {
+            allowed++;
+        }
+        assertEquals(1_000_000 - THREADS * ATTEMPTS_PER_THREAD, allowed);
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.diver.autenticacion.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LoginThrottlingFilterTest {
+
+    private static final String LOGIN_BODY = "{\"username\":\"Ana\",\"password\":\"12345\"}";
+
+    private LoginThrottlingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LoginThrottlingFilter(Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(filter, "usernameCapacity", 5);
+        ReflectionTestUtils.setField(filter, "usernameRefillPeriodMs", 60_000L);
+        ReflectionTestUtils.setField(filter, "ipCapacity", 20);
+        ReflectionTestUtils.setField(filter, "ipRefillPeriodMs", 60_000L);
+        ReflectionTestUtils.setField(filter, "failureCost", 3.0);
+        ReflectionTestUtils.setField(filter, "maxEntries", 1_000);
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 256);
+        filter.init();
+    }
+
+    @Test
+    void elControladorRecibeElCuerpoCompleto() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                seen.set(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        };
+
+        filter.doFilter(login(LOGIN_BODY), new MockHttpServletResponse(), chain);
+
+        assertEquals(LOGIN_BODY, seen.get());
+    }
+
+    @Test
+    void unCuerpoDemasiadoGrandeSeRechazaCon413() throws Exception {
+        String padded = "{\"username\":\"ana\",\"password\":\"" + "x".repeat(1_000) + "\"}";
+
+        MockHttpServletResponse declared = new MockHttpServletResponse();
+        MockFilterChain declaredChain = new MockFilterChain();
+        filter.doFilter(login(padded), declared, declaredChain);
+        assertEquals(413, declared.getStatus());
+        assertNull(declaredChain.getRequest(), "No debe llegar al controlador");
+
+        // Sin Content-Length (chunked) el límite se aplica al leer.
+        MockHttpServletRequest unknownLength = new MockHttpServletRequest("POST", "/api/auth/login") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        unknownLength.setContent(padded.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        MockFilterChain streamedChain = new MockFilterChain();
+        filter.doFilter(unknownLength, streamed, streamedChain);
+        assertEquals(413, streamed.getStatus());
+        assertNull(streamedChain.getRequest());
+    }
+
+    @Test
+    void elReadListenerRecibeLosDatosYElFinal() throws Exception {
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                ServletInputStream input = request.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        events.add("data");
+                        byte[] buffer = new byte[8];
+                        int n;
+                        while (input.isReady() && !input.isFinished() && (n = input.read(buffer)) > 0) {
+                            read.write(buffer, 0, n);
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        events.add("end");
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        events.add("error");
+                    }
+                });
+            }
+        };
+
+        filter.doFilter(login(LOGIN_BODY), new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of("data", "end"), events);
+        assertEquals(LOGIN_BODY, read.toString(StandardCharsets.UTF_8));
+    }
+
+    private static MockHttpServletRequest login(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
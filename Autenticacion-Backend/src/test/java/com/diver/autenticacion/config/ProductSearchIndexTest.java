@@ -0,0 +1,114 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void lasTildesYLasMayusculasNoCuentan() {
+        assertEquals(List.of("raton", "pinguino", "ergonomico"), ProductSearchIndex.tokenize("Ratón del Pingüino, ERGONÓMICO"));
+
+        index.put(product(1, "Teclado Mecánico", "Interruptores rojos"));
+        index.put(product(2, "Ratón inalámbrico", "Sensor óptico"));
+
+        assertEquals(List.of(1L), ids(index.search("mecanico", 10)));
+        assertEquals(List.of(1L), ids(index.search("MECÁNICO", 10)));
+        assertEquals(List.of(2L), ids(index.search("raton optico", 10)));
+        // Las palabras vacías no son términos: "de" no exige nada.
+        assertEquals(List.of(2L), ids(index.search("ratón de sensor", 10)));
+        assertEquals(List.of(), index.search("de la", 10));
+    }
+
+    @Test
+    void unTerminoEncuentraLasPalabrasQueEmpiezanPorEl() {
+        index.put(product(1, "Teclado mecánico", null));
+        index.put(product(2, "Cable", "Cable de red"));
+        index.put(product(3, "Cableado estructurado", "Instalación de cableado"));
+        index.put(product(4, "Tarjeta gráfica", null));
+
+        assertEquals(List.of(1L), ids(index.search("tecl", 10)));
+        // El término exacto puntúa más que la misma palabra como prefijo de otra.
+        assertEquals(List.of(2L, 3L), ids(index.search("cable", 10)));
+        // Con una sola letra no se expande: "t" no encuentra "teclado" ni "tarjeta".
+        assertEquals(List.of(), index.search("t", 10));
+    }
+
+    @Test
+    void todosLosTerminosSonObligatorios() {
+        index.put(product(1, "Teclado mecánico", "Retroiluminado RGB"));
+        index.put(product(2, "Teclado de membrana", "Retroiluminado"));
+        index.put(product(3, "Ratón RGB", "Retroiluminado"));
+
+        assertEquals(List.of(1L), ids(index.search("teclado rgb retro", 10)));
+        assertEquals(List.of(), index.search("teclado rgb inexistente", 10));
+    }
+
+    @Test
+    void bm25OrdenaPorRelevancia() {
+        // Nombre frente a descripción: el nombre cuenta el doble.
+        index.put(product(1, "Soporte", "Para monitor"));
+        index.put(product(2, "Monitor", "Pantalla plana"));
+        // Frecuencia: dos apariciones puntúan más que una en un texto de la misma longitud.
+        index.put(product(3, "Altavoz", "altavoz altavoz estéreo"));
+        index.put(product(4, "Altavoz", "portátil compacto estéreo"));
+        // Longitud: en un texto más corto el término pesa más.
+        index.put(product(5, "Funda", "Negra"));
+        index.put(product(6, "Funda", "Negra acolchada resistente impermeable con cremallera doble"));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("monitor", 10)));
+        assertEquals(List.of(3L, 4L), ids(index.search("altavoz", 10)));
+        assertEquals(List.of(5L, 6L), ids(index.search("funda", 10)));
+
+        List<ProductSearchHitDTO> hits = index.search("altavoz estereo", 10);
+        assertEquals(List.of(3L, 4L), ids(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void elLimiteDevuelveLosMejoresYLosEmpatesVanPorId() {
+        for (long id = 20; id >= 1; id--) {
+            index.put(product(id, "Adaptador", id % 5 == 0 ? "Adaptador USB-C a HDMI adaptador" : "USB-C a HDMI"));
+        }
+
+        // Los cuatro con dos apariciones primero; el resto empata y se ordena por id.
+        assertEquals(List.of(5L, 10L, 15L, 20L, 1L, 2L), ids(index.search("adaptador hdmi", 6)));
+        assertEquals(20, index.search("adaptador", 100).size());
+    }
+
+    @Test
+    void losCambiosYBorradosSeReflejanEnLaBusqueda() {
+        index.put(product(1, "Teclado mecánico", null));
+        index.put(product(2, "Teclado compacto", null));
+
+        index.put(product(1, "Ratón vertical", null));
+        index.remove(2L);
+        index.put(product(3, "Teclado numérico", null)); // reutiliza el número interno del borrado
+
+        assertEquals(List.of(3L), ids(index.search("teclado", 10)));
+        assertEquals(List.of(1L), ids(index.search("raton", 10)));
+        assertEquals(List.of(), index.search("compacto", 10));
+        assertEquals(2, index.size());
+    }
+
+    private static ProductDTO product(long id, String name, String description) {
+        return ProductDTO.builder().id(id).name(name).description(description).price(10).build();
+    }
+
+    private static List<Long> ids(List<ProductSearchHitDTO> hits) {
+        List<Long> ids = new ArrayList<>();
+        for (ProductSearchHitDTO hit : hits) {
+            ids.add(hit.getProduct().getId());
+        }
+        return ids;
+    }
+}
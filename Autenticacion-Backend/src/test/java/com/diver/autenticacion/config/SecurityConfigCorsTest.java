@@ -0,0 +1,59 @@
+package com.diver.autenticacion.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.CorsFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecurityConfigCorsTest {
+
+    private static final String FRONTEND = "http://localhost:4200";
+
+    private final CorsFilter cors = new CorsFilter(
+            new SecurityConfig(null, null, null, null, null, null).corsConfigurationSource());
+
+    @Test
+    void elPreflightDeUnaActualizacionConIfMatchSeAcepta() throws Exception {
+        MockHttpServletRequest preflight = new MockHttpServletRequest("OPTIONS", "/api/products/1");
+        preflight.addHeader(HttpHeaders.ORIGIN, FRONTEND);
+        preflight.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT");
+        preflight.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization,content-type,if-match");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cors.doFilter(preflight, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(FRONTEND, response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        assertTrue(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS).toLowerCase().contains("if-match"),
+                response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS));
+    }
+
+    @Test
+    void elPreflightDeUnaLecturaConIfNoneMatchSeAcepta() throws Exception {
+        MockHttpServletRequest preflight = new MockHttpServletRequest("OPTIONS", "/api/products/1");
+        preflight.addHeader(HttpHeaders.ORIGIN, FRONTEND);
+        preflight.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET");
+        preflight.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "if-none-match");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cors.doFilter(preflight, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void elEtagEsLegibleDesdeElFrontend() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.addHeader(HttpHeaders.ORIGIN, FRONTEND);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        cors.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(HttpHeaders.ETAG, response.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
+    }
+}
@@ -0,0 +1,50 @@
+package com.diver.autenticacion.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecurityConfigPasswordEncoderTest {
+
+    private SecurityConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new SecurityConfig(null, null, null, null, null, null);
+        ReflectionTestUtils.setField(config, "bcryptMinStrength", 10);
+        ReflectionTestUtils.setField(config, "bcryptMaxStrength", 11);
+    }
+
+    @Test
+    void elCosteFijoTienePrioridadSobreLaCalibracion() {
+        ReflectionTestUtils.setField(config, "bcryptStrength", 10);
+        ReflectionTestUtils.setField(config, "passwordHashingTargetMillis", 3_600_000L);
+
+        assertTrue(config.hashingPasswordEncoder().encode("secreto").startsWith("{bcrypt}$2a$10$"));
+    }
+
+    @Test
+    void sinCosteFijoSeCalibraDentroDelRango() {
+        ReflectionTestUtils.setField(config, "passwordHashingTargetMillis", 3_600_000L);
+
+        assertTrue(config.hashingPasswordEncoder().encode("secreto").startsWith("{bcrypt}$2a$11$"));
+    }
+
+    @Test
+    void sinCosteFijoNiCalibracionSeUsaElPorDefectoLimitadoAlRango() {
+        assertTrue(config.hashingPasswordEncoder().encode("secreto").startsWith("{bcrypt}$2a$11$"));
+    }
+
+    @Test
+    void unCosteFueraDelRangoNoArranca() {
+        ReflectionTestUtils.setField(config, "bcryptStrength", 12);
+        assertThrows(IllegalStateException.class, config::hashingPasswordEncoder);
+
+        ReflectionTestUtils.setField(config, "bcryptStrength", 0);
+        ReflectionTestUtils.setField(config, "bcryptMinStrength", 8);
+        assertThrows(IllegalStateException.class, config::hashingPasswordEncoder);
+    }
+}
@@ -0,0 +1,179 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Exceptions.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenylistTest {
+
+    private static final int CAPACITY = 64;
+
+    @TempDir
+    Path dir;
+
+    private final List<TokenDenylist> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAll() throws IOException {
+        for (TokenDenylist denylist : opened) {
+            denylist.close();
+        }
+    }
+
+    @Test
+    void unTokenRevocadoLoEstaHastaSuExpiracion() throws IOException {
+        TokenDenylist denylist = open(CAPACITY);
+        String revoked = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+
+        denylist.revoke(revoked, inOneHour());
+        denylist.revoke(revoked, inOneHour()); // idempotente
+        denylist.revoke(expired, System.currentTimeMillis() - 5_000);
+
+        assertTrue(denylist.isRevoked(revoked));
+        assertFalse(denylist.isRevoked(expired));
+        assertFalse(denylist.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(denylist.isRevoked(null));
+        assertEquals(2, denylist.usedSlots());
+    }
+
+    @Test
+    void laPurgaLiberaLosExpiradosYConservaLosVigentes() throws IOException {
+        TokenDenylist denylist = open(CAPACITY);
+        List<String> live = revokeMany(denylist, 20, inOneHour());
+        revokeMany(denylist, 30, System.currentTimeMillis() - 5_000);
+
+        denylist.purgeExpired();
+
+        live.forEach(jti -> assertTrue(denylist.isRevoked(jti), jti));
+        // Las marcas de los expirados que cerraban una secuencia de sondeo vuelven a estar vacías.
+        assertTrue(denylist.usedSlots() < 50, "Huecos no vacíos tras la purga: " + denylist.usedSlots());
+    }
+
+    @Test
+    void trasLlenarseYPurgarseLaTablaNoQuedaLlenaDeMarcas() throws IOException {
+        TokenDenylist denylist = open(CAPACITY);
+
+        // Se ocupan todos los huecos posibles con tokens ya expirados: queda exactamente uno vacío.
+        revokeMany(denylist, CAPACITY - 1, System.currentTimeMillis() - 5_000);
+        assertEquals(CAPACITY - 1, denylist.usedSlots());
+
+        // Sin entradas vigentes, la purga deja la tabla vacía: ninguna búsqueda la recorre entera.
+        denylist.purgeExpired();
+        assertEquals(0, denylist.usedSlots());
+
+        List<String> live = revokeMany(denylist, CAPACITY - 1, inOneHour());
+        live.forEach(jti -> assertTrue(denylist.isRevoked(jti), jti));
+    }
+
+    @RepeatedTest(20)
+    void conLaTablaLlenaDeExpiradosUnaRevocacionPurgaYSeGuarda() throws IOException {
+        TokenDenylist denylist = open(CAPACITY);
+        List<String> live = revokeMany(denylist, 10, inOneHour());
+        revokeMany(denylist, CAPACITY - 11, System.currentTimeMillis() - 5_000);
+        assertEquals(CAPACITY - 1, denylist.usedSlots());
+
+        // Sin esperar a la purga programada.
+        String jti = UUID.randomUUID().toString();
+        denylist.revoke(jti, inOneHour());
+
+        assertTrue(denylist.isRevoked(jti));
+        live.forEach(revoked -> assertTrue(denylist.isRevoked(revoked), revoked));
+        // Los huecos de los expirados quedan libres para las siguientes.
+        revokeMany(denylist, CAPACITY - 12, inOneHour()).forEach(revoked -> assertTrue(denylist.isRevoked(revoked), revoked));
+    }
+
+    @Test
+    void conLaTablaLlenaDeVigentesUnaRevocacionEs503() throws IOException {
+        TokenDenylist denylist = open(CAPACITY);
+        List<String> live = revokeMany(denylist, CAPACITY - 1, inOneHour());
+
+        ServiceUnavailableException error = assertThrows(ServiceUnavailableException.class,
+                () -> denylist.revoke(UUID.randomUUID().toString(), inOneHour()));
+
+        assertEquals(60, error.getRetryAfterSeconds());
+        assertEquals(CAPACITY - 1, denylist.usedSlots());
+        live.forEach(jti -> assertTrue(denylist.isRevoked(jti), jti));
+        // Volver a revocar uno que ya está no necesita hueco.
+        denylist.revoke(live.get(0), inOneHour());
+    }
+
+    @Test
+    void laCapacidadSeCalculaConElPicoDeRevocacionesYLaVidaDelToken() {
+        // 50/s durante 7 minutos son 21000 vigentes; al 50% de ocupación, 42000 huecos, redondeados a 65536.
+        assertEquals(65536, TokenDenylist.capacityFor(50, 420_000));
+        assertEquals(131072, TokenDenylist.capacityFor(100, 420_000));
+        assertEquals(1024, TokenDenylist.capacityFor(0, 420_000));
+        assertEquals(1024, TokenDenylist.capacityFor(1, 60_000));
+    }
+
+    @Test
+    void sinCapacidadFijaSeUsaLaCalculada() throws IOException {
+        TokenDenylist denylist = new TokenDenylist();
+        ReflectionTestUtils.setField(denylist, "path", dir.resolve("calculada.bin").toString());
+        ReflectionTestUtils.setField(denylist, "peakRevocationsPerSecond", 10);
+        ReflectionTestUtils.setField(denylist, "tokenLifetimeMillis", 420_000L);
+        denylist.init();
+        opened.add(denylist);
+
+        assertEquals(TokenDenylist.capacityFor(10, 420_000), ReflectionTestUtils.getField(denylist, "capacity"));
+    }
+
+    @Test
+    void lasRevocacionesSobrevivenAReabrirElFichero() throws IOException {
+        TokenDenylist first = open(CAPACITY);
+        List<String> live = revokeMany(first, 10, inOneHour());
+        first.close();
+        opened.remove(first);
+
+        TokenDenylist reopened = open(CAPACITY);
+        live.forEach(jti -> assertTrue(reopened.isRevoked(jti), jti));
+        assertEquals(10, reopened.usedSlots());
+    }
+
+    @Test
+    void unFicheroConOtraCapacidadSeRechaza() throws IOException {
+        open(CAPACITY).close();
+        opened.clear();
+
+        assertThrows(IllegalStateException.class, () -> open(CAPACITY * 2));
+    }
+
+    private TokenDenylist open(int capacity) throws IOException {
+        TokenDenylist denylist = new TokenDenylist();
+        ReflectionTestUtils.setField(denylist, "path", dir.resolve("token-denylist.bin").toString());
+        ReflectionTestUtils.setField(denylist, "capacity", capacity);
+        ReflectionTestUtils.setField(denylist, "purgeIntervalMillis", 60_000L);
+        denylist.init();
+        opened.add(denylist);
+        return denylist;
+    }
+
+    private static List<String> revokeMany(TokenDenylist denylist, int count, long expiresAtMillis) {
+        List<String> jtis = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String jti = UUID.randomUUID().toString();
+            denylist.revoke(jti, expiresAtMillis);
+            jtis.add(jti);
+        }
+        return jtis;
+    }
+
+    private static long inOneHour() {
+        return System.currentTimeMillis() + 3_600_000;
+    }
+}
@@ -0,0 +1,74 @@
+package com.diver.autenticacion.config;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.entities.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserDetailsCacheTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * Salvaguarda para el modo de hilos virtuales: la carga de un usuario (una consulta JDBC, aquí simulada
+     * con una espera) no debe ejecutarse dentro de un {@code synchronized}, o el hilo virtual queda fijado
+     * a su carrier mientras espera a la base de datos.
+     */
+    @Test
+    void cargarUnUsuarioDesdeUnHiloVirtualNoLoFijaASuCarrier() throws Exception {
+        UserDetailsCache cache = new UserDetailsCache(new SimpleMeterRegistry(), 100, 60_000);
+        CustomUserDetails principal = new CustomUserDetails(User.builder().id(1L).username("ana").roles(Set.of()).build());
+        Object monitor = new Object();
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        CountDownLatch controlRecorded = new CountDownLatch(1);
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinned.add(event);
+                if ("control".equals(event.getThread().getJavaName())) {
+                    controlRecorded.countDown();
+                }
+            });
+            stream.startAsync();
+
+            Thread.ofVirtual().name("carga-usuario").start(() ->
+                    assertEquals(principal, cache.get("ana", username -> {
+                        sleep(50); // la consulta a la base de datos
+                        return principal;
+                    }))).join();
+
+            // Control: esperar dentro de un synchronized sí fija el hilo. Cuando llega su evento, el de la
+            // carga (si lo hubiera) ya se ha entregado, y además confirma que la detección funciona.
+            Thread.ofVirtual().name("control").start(() -> {
+                synchronized (monitor) {
+                    sleep(50);
+                }
+            }).join();
+            assertTrue(controlRecorded.await(30, TimeUnit.SECONDS), "JFR no registró el caso de control");
+        }
+
+        assertTrue(pinned.stream().noneMatch(event -> "carga-usuario".equals(event.getThread().getJavaName())),
+                "La carga del usuario fijó el hilo virtual a su carrier");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.diver.autenticacion.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedTokenCacheTest {
+
+    private static final String CACHE_NAME = "jwtVerifiedTokens";
+    private static final String TOKEN = "header.payload.signature";
+
+    private FakeTime time;
+    private JwtUtils jwtUtils;
+    private SimpleMeterRegistry registry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        time = new FakeTime(1_700_000_000_000L);
+        jwtUtils = mock(JwtUtils.class);
+        registry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(jwtUtils, registry, 100, time, time);
+    }
+
+    @Test
+    void unTokenCacheadoSeVerificaUnaSolaVez() {
+        JwtUtils.VerifiedToken verified = token(60_000);
+        when(jwtUtils.verify(TOKEN)).thenReturn(verified);
+
+        assertSame(verified, cache.verify(TOKEN));
+        assertSame(verified, cache.verify(TOKEN));
+
+        verify(jwtUtils, times(1)).verify(TOKEN);
+    }
+
+    @Test
+    void unTokenCacheadoSeRechazaEnCuantoPasaSuExp() {
+        when(jwtUtils.verify(TOKEN)).thenReturn(token(60_000));
+        cache.verify(TOKEN);
+
+        time.advance(59_999);
+        cache.verify(TOKEN);
+        verify(jwtUtils, times(1)).verify(TOKEN);
+
+        // Pasado el exp ya no sale de la caché: se vuelve a verificar, y la verificación lo rechaza.
+        when(jwtUtils.verify(TOKEN)).thenThrow(new ExpiredJwtException(null, null, "JWT expirado"));
+        time.advance(1);
+        assertThrows(ExpiredJwtException.class, () -> cache.verify(TOKEN));
+    }
+
+    @Test
+    void unTokenYaExpiradoNoSeGuarda() {
+        // JwtUtils puede aceptarlo dentro de su tolerancia de reloj, pero la caché no lo conserva.
+        when(jwtUtils.verify(TOKEN)).thenReturn(token(-1_000));
+
+        cache.verify(TOKEN);
+        cache.verify(TOKEN);
+        caffeine().cleanUp();
+
+        // Ni una carga guardada ni, por tanto, una entrada que luego caduque.
+        assertEquals(0, caffeine().stats().loadSuccessCount());
+        assertEquals(0, registry.get("cache.evictions").tag("cache", CACHE_NAME).functionCounter().count());
+        assertEquals(0, registry.get("cache.size").tag("cache", CACHE_NAME).gauge().value());
+        verify(jwtUtils, times(4)).verify(TOKEN);
+    }
+
+    @Test
+    void losAciertosFallosYDesalojosSePublicanComoMetricas() {
+        when(jwtUtils.verify(TOKEN)).thenReturn(token(60_000));
+
+        cache.verify(TOKEN); // fallo
+        cache.verify(TOKEN); // acierto
+        cache.verify(TOKEN); // acierto
+        time.advance(60_000);
+        caffeine().cleanUp(); // la caducidad cuenta como desalojo
+
+        assertEquals(2, registry.get("cache.gets").tags("cache", CACHE_NAME, "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", CACHE_NAME, "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.evictions").tag("cache", CACHE_NAME).functionCounter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, JwtUtils.VerifiedToken> caffeine() {
+        return (Cache<String, JwtUtils.VerifiedToken>) ReflectionTestUtils.getField(cache, "cache");
+    }
+
+    private JwtUtils.VerifiedToken token(long expiresInMillis) {
+        Date now = new Date(time.millis());
+        return new JwtUtils.VerifiedToken("ana", now, new Date(time.millis() + expiresInMillis), Map.of());
+    }
+
+    /**
+     * Hora de pared y reloj de Caffeine que solo avanzan cuando el test lo pide, y siempre juntos.
+     */
+    private static final class FakeTime extends Clock implements Ticker {
+
+        private long millis;
+
+        FakeTime(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
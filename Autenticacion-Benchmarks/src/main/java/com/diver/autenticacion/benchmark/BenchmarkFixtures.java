@@ -0,0 +1,145 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.config.JwtSigningKeys;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.TokenDenylist;
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.entities.Role;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.enums.ERole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Construye los componentes del backend fuera del contexto de Spring, rellenando a mano
+ * los campos {@code @Value} con los mismos valores que application.properties.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    static final int EXPIRATION_MS = 420_000;
+    static final int REFRESH_EXPIRATION_MS = 600_000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtSigningKeys signingKeys(String algorithm) {
+        JwtSigningKeys signingKeys = new JwtSigningKeys();
+        ReflectionTestUtils.setField(signingKeys, "algorithm", algorithm);
+        ReflectionTestUtils.setField(signingKeys, "retentionMs", (long) REFRESH_EXPIRATION_MS);
+        signingKeys.init();
+        return signingKeys;
+    }
+
+    static JwtUtils jwtUtils(String algorithm, boolean stateless) {
+        return jwtUtils(algorithm, stateless, true);
+    }
+
+    static JwtUtils jwtUtils(String algorithm, boolean stateless, boolean fastPath) {
+        JwtUtils jwtUtils = new JwtUtils(signingKeys(algorithm));
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtUtils, "stateless", stateless);
+        ReflectionTestUtils.setField(jwtUtils, "fastPathEnabled", fastPath);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    /**
+     * Denylist en un fichero temporal con {@code revoked} tokens revocados que no caducan durante la medición.
+     */
+    static TokenDenylist tokenDenylist(int revoked) {
+        try {
+            Path file = Files.createTempDirectory("denylist").resolve("token-denylist.bin");
+            file.toFile().deleteOnExit();
+            TokenDenylist denylist = new TokenDenylist();
+            ReflectionTestUtils.setField(denylist, "path", file.toString());
+            ReflectionTestUtils.setField(denylist, "capacity", 65_536);
+            denylist.init();
+            long expiresAt = System.currentTimeMillis() + 3_600_000;
+            for (int i = 0; i < revoked; i++) {
+                denylist.revoke(UUID.randomUUID().toString(), expiresAt);
+            }
+            return denylist;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static User user(long id, ERole... roles) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@mi-app.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7G1QnJxA7sLrV8Z8bX4J8qS")
+                .roles(Arrays.stream(roles).map(Role::new).collect(Collectors.toSet()))
+                .build();
+    }
+
+    static CustomUserDetails userDetails(ERole... roles) {
+        return new CustomUserDetails(user(1L, roles));
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i, ERole.ROLE_USER, ERole.ROLE_SUPERVISOR));
+        }
+        return users;
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i)
+                    .name("Producto " + i)
+                    .description("Descripción del producto " + i)
+                    .price(10.0 + i)
+                    .build());
+        }
+        return products;
+    }
+
+    private static final String[] PRODUCT_TYPES = {"Teclado", "Monitor", "Ratón", "Auriculares", "Webcam",
+            "Portátil", "Altavoz", "Micrófono", "Dockstation", "Cable", "Disco", "Memoria"};
+    private static final String[] PRODUCT_WORDS = {"mecánico", "inalámbrico", "ergonómico", "profesional",
+            "compacto", "gaming", "silencioso", "ultrawide", "portátil", "rgb", "usb", "bluetooth", "4k",
+            "1080p", "oficina", "estudio", "viaje", "resistente", "ligero", "potente", "cancelación", "ruido",
+            "música", "desarrolladores", "reuniones", "diseño", "pantalla", "batería", "conexión", "precisión"};
+
+    /**
+     * Catálogo sintético para la búsqueda: nombres y descripciones combinando un vocabulario fijo, con tildes,
+     * y siempre el mismo para un mismo {@code count}.
+     */
+    static List<ProductDTO> catalog(int count) {
+        Random random = new Random(42);
+        List<ProductDTO> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                description.append(PRODUCT_WORDS[random.nextInt(PRODUCT_WORDS.length)]).append(' ');
+            }
+            products.add(ProductDTO.builder()
+                    .id((long) i)
+                    .name(PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)] + " "
+                            + PRODUCT_WORDS[random.nextInt(PRODUCT_WORDS.length)] + " " + i)
+                    .description(description.toString().trim())
+                    .price(10.0 + random.nextInt(1000))
+                    .build());
+        }
+        return products;
+    }
+}
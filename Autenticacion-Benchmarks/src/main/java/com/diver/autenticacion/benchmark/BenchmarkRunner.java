@@ -0,0 +1,33 @@
+package com.diver.autenticacion.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}. Acepta las mismas opciones que {@code org.openjdk.jmh.Main}
+ * (filtro por nombre, -f, -wi, -i, -rf json...) y siempre añade el profiler de GC, para que cada
+ * resultado incluya la tasa de asignación ({@code gc.alloc.rate.norm}, bytes por operación).
+ * <p>
+ * Cada benchmark mide en modo Throughput (ops/ms) y SampleTime (latencia con percentiles p50/p90/p99/p99.9).
+ * </p>
+ * <pre>
+ * java -jar target/benchmarks.jar                      # todos
+ * java -jar target/benchmarks.jar JwtUtilsBenchmark    # solo una clase
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
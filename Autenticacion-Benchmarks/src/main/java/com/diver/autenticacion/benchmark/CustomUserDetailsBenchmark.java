@@ -0,0 +1,39 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.enums.ERole;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de {@link CustomUserDetails#getAuthorities()}, que se invoca en cada petición autenticada
+ * (al crear la autenticación y en cada comprobación de {@code @PreAuthorize}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomUserDetailsBenchmark {
+
+    @Param({"1", "3"})
+    private int roleCount;
+
+    private CustomUserDetails userDetails;
+
+    @Setup
+    public void setup() {
+        ERole[] roles = new ERole[roleCount];
+        System.arraycopy(ERole.values(), 0, roles, 0, roleCount);
+        userDetails = BenchmarkFixtures.userDetails(roles);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+}
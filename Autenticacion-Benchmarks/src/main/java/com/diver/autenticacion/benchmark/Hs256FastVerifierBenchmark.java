@@ -0,0 +1,46 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.enums.ERole;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtUtils#verify(String)} de un access token HS256 con el verificador rápido activado
+ * ({@code jwt.fastPath.enabled=true}) y desactivado (parser general de jjwt).
+ * La métrica que importa es {@code gc.alloc.rate.norm}: bytes asignados por token verificado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Hs256FastVerifierBenchmark {
+
+    @Param({"true", "false"})
+    private boolean fastPath;
+
+    private JwtUtils jwtUtils;
+    private String accessToken;
+    private String statelessAccessToken;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkFixtures.jwtUtils("HS256", true, fastPath);
+        accessToken = jwtUtils.generateTokenFromUsername("admin");
+        statelessAccessToken = jwtUtils.generateTokenFromUserDetails(
+                BenchmarkFixtures.userDetails(ERole.ROLE_USER, ERole.ROLE_ADMIN));
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verifyAccessToken() {
+        return jwtUtils.verify(accessToken);
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verifyStatelessAccessToken() {
+        return jwtUtils.verify(statelessAccessToken);
+    }
+}
@@ -0,0 +1,98 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.Services.CustomUserDetailsService;
+import com.diver.autenticacion.config.JwtAuthenticationFilter;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.config.VerifiedTokenCache;
+import com.diver.autenticacion.enums.ERole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pasada completa de {@link JwtAuthenticationFilter} para una petición con {@code Authorization: Bearer}.
+ * <p>
+ * El {@link CustomUserDetailsService} está sustituido por un stub que devuelve un usuario en memoria,
+ * así que se mide solo el coste del filtro (verificación, caché, consulta a la denylist, construcción de la
+ * autenticación), sin base de datos.
+ * </p>
+ * <ul>
+ *     <li>{@code tokenCache=hit}: el token ya está en {@link VerifiedTokenCache} (caso habitual).</li>
+ *     <li>{@code tokenCache=miss}: se invalida antes de cada petición, forzando la verificación de la firma.</li>
+ *     <li>{@code stateless}: el principal se construye desde los claims en lugar del UserDetailsService.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"hit", "miss"})
+    private String tokenCache;
+
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    private JwtAuthenticationFilter filter;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+    private String authorizationHeader;
+
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setup() {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils("HS256", stateless);
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtils, new SimpleMeterRegistry(), 10_000);
+        CustomUserDetails userDetails = BenchmarkFixtures.userDetails(ERole.ROLE_USER);
+        filter = new JwtAuthenticationFilter(jwtUtils, verifiedTokenCache,
+                BenchmarkFixtures.tokenDenylist(1_000), new StubUserDetailsService(userDetails));
+
+        token = jwtUtils.generateTokenFromUserDetails(userDetails);
+        authorizationHeader = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws Exception {
+        if ("miss".equals(tokenCache)) {
+            verifiedTokenCache.invalidate(token);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * Sustituye la consulta a la base de datos por un usuario fijo.
+     */
+    private static final class StubUserDetailsService extends CustomUserDetailsService {
+
+        private final UserDetails userDetails;
+
+        StubUserDetailsService(UserDetails userDetails) {
+            super(null, null);
+            this.userDetails = userDetails;
+        }
+
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            return userDetails;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Security.CustomUserDetails;
+import com.diver.autenticacion.config.JwtSigningKeys;
+import com.diver.autenticacion.config.JwtUtils;
+import com.diver.autenticacion.enums.ERole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción, parseo y validación de tokens en {@link JwtUtils}, para cada algoritmo de {@code jwt.algorithm}.
+ * <ul>
+ *     <li>{@code buildAccessToken}/{@code buildStatelessAccessToken}: firma de un access token sin y con claims de principal.</li>
+ *     <li>{@code verify}: parseo + verificación en una pasada (lo que usa el filtro).</li>
+ *     <li>{@code validateToken}: la validación booleana.</li>
+ *     <li>{@code legacyExtractAndValidate}: el camino anterior del filtro (dos parsers nuevos y dos verificaciones),
+ *     como referencia de "antes".</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    @Param({"HS256", "ES256"})
+    private String algorithm;
+
+    private JwtUtils jwtUtils;
+    private CustomUserDetails userDetails;
+    private Key legacyKey;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkFixtures.jwtUtils(algorithm, true);
+        userDetails = BenchmarkFixtures.userDetails(ERole.ROLE_USER, ERole.ROLE_ADMIN);
+        token = jwtUtils.generateTokenFromUsername("admin");
+
+        JwtSigningKeys signingKeys = (JwtSigningKeys) ReflectionTestUtils.getField(jwtUtils, "signingKeys");
+        legacyKey = signingKeys.isAsymmetric()
+                ? signingKeys.current().keyPair().getPublic()
+                : Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String buildAccessToken() {
+        return jwtUtils.generateTokenFromUsername("admin");
+    }
+
+    @Benchmark
+    public String buildStatelessAccessToken() {
+        return jwtUtils.generateTokenFromUserDetails(userDetails);
+    }
+
+    @Benchmark
+    public JwtUtils.VerifiedToken verify() {
+        return jwtUtils.verify(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public void legacyExtractAndValidate(Blackhole bh) {
+        Claims claims = Jwts.parserBuilder().setSigningKey(legacyKey).build().parseClaimsJws(token).getBody();
+        bh.consume(claims.getSubject());
+        bh.consume(Jwts.parserBuilder().setSigningKey(legacyKey).build().parseClaimsJws(token));
+    }
+}
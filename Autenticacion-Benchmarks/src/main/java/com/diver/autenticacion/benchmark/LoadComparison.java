@@ -0,0 +1,140 @@
+package com.diver.autenticacion.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga HTTP contra un backend arrancado, para comparar el modo de hilos de plataforma con el de
+ * hilos virtuales ({@code spring.threads.virtual.enabled}). No es un benchmark JMH: mide el servidor completo
+ * (Tomcat, filtros, pool de conexiones y base de datos) desde fuera.
+ * <p>
+ * Hace login una vez y lanza {@code concurrency} clientes (cada uno en un hilo virtual) que repiten
+ * {@code GET path} con el access token durante {@code seconds} segundos. Al final imprime el throughput,
+ * los percentiles de latencia y los errores.
+ * </p>
+ * <pre>
+ * java -cp target/benchmarks.jar com.diver.autenticacion.benchmark.LoadComparison \
+ *      http://localhost:5454 /api/users/me 1000 30 admin 12345
+ * </pre>
+ * Se ejecuta una vez con el backend en cada modo ({@code VIRTUAL_THREADS=false|true}) y se comparan las salidas.
+ */
+public final class LoadComparison {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private LoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:5454";
+        String path = args.length > 1 ? args[1] : "/api/users/me";
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        String username = args.length > 4 ? args[4] : "admin";
+        String password = args.length > 5 ? args[5] : "12345";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, baseUrl, username, password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        // Calentamiento: JIT, caché de tokens y de usuarios, conexiones del pool.
+        run(client, request, Math.min(concurrency, 50), Duration.ofSeconds(5));
+        Result result = run(client, request, concurrency, Duration.ofSeconds(seconds));
+
+        System.out.printf("GET %s con %d clientes concurrentes durante %d s%n", path, concurrency, seconds);
+        System.out.printf("  peticiones OK: %d, errores: %d%n", result.ok(), result.errors());
+        System.out.printf("  throughput: %.0f peticiones/s%n", result.ok() / (double) seconds);
+        System.out.printf("  latencia (ms): p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                result.percentile(50), result.percentile(90), result.percentile(99), result.percentile(100));
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ACCESS_TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login fallido (" + response.statusCode() + "): " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latenciesPerClient = new ArrayList<>(concurrency);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                latenciesPerClient.add(new long[0]);
+                int index = i;
+                clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    long[] measured = Arrays.copyOf(latencies, count);
+                    synchronized (latenciesPerClient) {
+                        latenciesPerClient.set(index, measured);
+                    }
+                });
+            }
+        }
+
+        long[] all = latenciesPerClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedLatenciesNanos, long errors) {
+
+        long ok() {
+            return sortedLatenciesNanos.length;
+        }
+
+        double percentile(double p) {
+            if (sortedLatenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sortedLatenciesNanos.length) - 1;
+            return sortedLatenciesNanos[Math.max(0, Math.min(index, sortedLatenciesNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.UserDto;
+import com.diver.autenticacion.entities.Product;
+import com.diver.autenticacion.entities.User;
+import com.diver.autenticacion.mapper.ProductMapper;
+import com.diver.autenticacion.mapper.ProductMapperImpl;
+import com.diver.autenticacion.mapper.UserMapper;
+import com.diver.autenticacion.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de listas con los mappers de MapStruct generados ({@code UserMapperImpl}, {@code ProductMapperImpl}),
+ * tal como la usan {@code GET /api/admin/users} y {@code GET /api/products}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final ProductMapper productMapper = new ProductMapperImpl();
+
+    private List<User> users;
+    private List<Product> products;
+
+    @Setup
+    public void setup() {
+        users = BenchmarkFixtures.users(size);
+        products = BenchmarkFixtures.products(size);
+    }
+
+    @Benchmark
+    public List<UserDto> toUserDTOList() {
+        return userMapper.toUserDTOList(users);
+    }
+
+    @Benchmark
+    public List<ProductDTO> toProductDTOList() {
+        return productMapper.toProductDTOList(products);
+    }
+}
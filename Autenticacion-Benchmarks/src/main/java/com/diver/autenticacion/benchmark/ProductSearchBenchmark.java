@@ -0,0 +1,62 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.Dto.ProductDTO;
+import com.diver.autenticacion.Dto.response.ProductSearchHitDTO;
+import com.diver.autenticacion.config.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductSearchIndex} con un catálogo sintético de {@code products} productos, pidiendo los 20 mejores.
+ * <ul>
+ *     <li>{@code singleTerm}: una palabra completa, sin tildes ({@code "mecanico"}).</li>
+ *     <li>{@code prefix}: una palabra a medio escribir, que se expande a varios términos ({@code "pro"}).</li>
+ *     <li>{@code multiTerm}: varios términos que tienen que aparecer todos ({@code "teclado inalam rgb"}).</li>
+ *     <li>{@code update}: el coste de mantener el índice al modificar un producto.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    private int products;
+
+    private ProductSearchIndex index;
+    private List<ProductDTO> catalog;
+    private int next;
+
+    @Setup
+    public void setup() {
+        catalog = BenchmarkFixtures.catalog(products);
+        index = new ProductSearchIndex();
+        index.rebuild(() -> catalog);
+    }
+
+    @Benchmark
+    public List<ProductSearchHitDTO> singleTerm() {
+        return index.search("mecanico", 20);
+    }
+
+    @Benchmark
+    public List<ProductSearchHitDTO> prefix() {
+        return index.search("pro", 20);
+    }
+
+    @Benchmark
+    public List<ProductSearchHitDTO> multiTerm() {
+        return index.search("teclado inalam rgb", 20);
+    }
+
+    @Benchmark
+    public void update() {
+        index.put(catalog.get(next));
+        next = (next + 1) % catalog.size();
+    }
+}
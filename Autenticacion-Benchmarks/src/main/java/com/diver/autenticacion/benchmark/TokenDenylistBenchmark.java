@@ -0,0 +1,53 @@
+package com.diver.autenticacion.benchmark;
+
+import com.diver.autenticacion.config.TokenDenylist;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TokenDenylist#isRevoked(String)} con la lista cargada con {@code revoked} entradas.
+ * <ul>
+ *     <li>{@code notRevoked}: el caso de casi todas las peticiones; debe resolverse en el filtro de Bloom.</li>
+ *     <li>{@code revoked}: acierto real, que además recorre la tabla exacta.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenDenylistBenchmark {
+
+    @Param({"1000", "30000"})
+    private int revoked;
+
+    private TokenDenylist denylist;
+    private String activeJti;
+    private String revokedJti;
+
+    @Setup
+    public void setup() {
+        denylist = BenchmarkFixtures.tokenDenylist(revoked);
+        activeJti = UUID.randomUUID().toString();
+        revokedJti = UUID.randomUUID().toString();
+        denylist.revoke(revokedJti, System.currentTimeMillis() + 3_600_000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        denylist.close();
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return denylist.isRevoked(activeJti);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return denylist.isRevoked(revokedJti);
+    }
+}
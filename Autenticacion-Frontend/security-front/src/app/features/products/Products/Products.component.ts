@@ -1,8 +1,10 @@
-import { Component, inject, OnInit } from '@angular/core';
+import { Component, DestroyRef, inject, OnInit } from '@angular/core';
+import { takeUntilDestroyed } from '@angular/core/rxjs-interop';
+import { FormControl, ReactiveFormsModule } from '@angular/forms';
 import { ProductService } from '../product.service.ts.service';
 import { AuthService } from '../../../core/services/auth.service';
-import { catchError, Observable, of } from 'rxjs';
-import { Product } from '../../../shared/models/product.model';
+import { catchError, debounceTime, distinctUntilChanged, map, Observable, of, tap } from 'rxjs';
+import { Product, ProductPage, ProductSortField, SortDirection } from '../../../shared/models/product.model';
 import { AuthResponse } from '../../../shared/models/auth.model';
 import { CommonModule, CurrencyPipe } from '@angular/common';
 import { RouterLink } from '@angular/router';
@@ -18,6 +20,7 @@ import { ConfirmationDialogComponent } from "../../../shared/components/confirma
     CommonModule, // el common module es necesario para el ngIf, el ngFor,async pipe ,
     CurrencyPipe, // el currency pipe es necesario para formatear el precio
     RouterLink,
+    ReactiveFormsModule,
     ConfirmationDialogComponent
   ]
 })
@@ -25,14 +28,36 @@ export class ProductsComponent implements OnInit {
 
   private productService = inject(ProductService);
   private authService = inject(AuthService);
+  private destroyRef = inject(DestroyRef);
 
-  public products$!: Observable<Product[]>;
+  public products$!: Observable<ProductPage>;
   public currentUser$: Observable<AuthResponse | null> = this.authService.currentUser$
   public error?: string | null = null;
 
   showDeleteConfirmation = false;
   productToDelete: Product | null = null;
 
+  // Paginación por cursor: nunca se descarga el catálogo completo.
+  readonly pageSize = 20;
+  sort: ProductSortField = 'id';
+  direction: SortDirection = 'asc';
+  // Cursores de las páginas ya visitadas: previousCursors[i] es el cursor con el que se pidió la página i.
+  private previousCursors: (string | null)[] = [];
+  private currentCursor: string | null = null;
+  nextCursor: string | null = null;
+
+  // Búsqueda de texto: mientras hay texto se muestran los resultados por relevancia en lugar del catálogo.
+  readonly searchControl = new FormControl('', { nonNullable: true });
+  private searchTerm = '';
+
+  get searching(): boolean {
+    return this.searchTerm.length > 0;
+  }
+
+  get pageNumber(): number {
+    return this.previousCursors.length + 1;
+  }
+
 
 
 
@@ -58,6 +83,18 @@ export class ProductsComponent implements OnInit {
 
   ngOnInit() {
     this.loadProducts();
+
+    // Se busca cuando el usuario deja de escribir, no con cada tecla.
+    this.searchControl.valueChanges.pipe(
+      map(term => term.trim()),
+      debounceTime(250),
+      distinctUntilChanged(),
+      takeUntilDestroyed(this.destroyRef)
+    ).subscribe(term => {
+      this.searchTerm = term;
+      this.resetPaging();
+      this.loadProducts();
+    });
   }
 
   /**
@@ -67,17 +104,70 @@ export class ProductsComponent implements OnInit {
    */
   loadProducts(): void {
 
-    this.products$ = this.productService.getProducts().pipe(
+    const page$: Observable<ProductPage> = this.searching
+      ? this.productService.searchProducts(this.searchTerm, this.pageSize).pipe(
+          map(hits => ({ items: hits.map(hit => hit.product), nextCursor: null })))
+      : this.productService.getProducts({
+          cursor: this.currentCursor,
+          limit: this.pageSize,
+          sort: this.sort,
+          direction: this.direction
+        });
+
+    this.products$ = page$.pipe(
+      tap(page => this.nextCursor = page.nextCursor),
       catchError(err => {
         console.error(' Error al cargar los productos', err);
         this.error = ' Ocurrio un error al cargar los productos';
 
-        // Devolvemos un observable vacio
-        return of([]);
+        // Devolvemos una página vacía
+        return of({ items: [], nextCursor: null });
 
       })
     );
   }
+
+  /**
+   * Avanza a la página siguiente con el cursor que devolvió el servidor.
+   */
+  nextPage(): void {
+    if (!this.nextCursor) return;
+    this.previousCursors.push(this.currentCursor);
+    this.currentCursor = this.nextCursor;
+    this.loadProducts();
+  }
+
+  /**
+   * Vuelve a la página anterior reutilizando el cursor con el que se pidió.
+   */
+  previousPage(): void {
+    if (this.previousCursors.length === 0) return;
+    this.currentCursor = this.previousCursors.pop() ?? null;
+    this.loadProducts();
+  }
+
+  /**
+   * Ordena por una columna (o invierte el orden si ya se ordenaba por ella) y vuelve a la primera página.
+   * @param field El campo por el que ordenar.
+   */
+  sortBy(field: ProductSortField): void {
+    if (this.searching) return; // los resultados de una búsqueda van por relevancia
+    this.direction = this.sort === field && this.direction === 'asc' ? 'desc' : 'asc';
+    this.sort = field;
+    this.resetPaging();
+    this.loadProducts();
+  }
+
+  sortIndicator(field: ProductSortField): string {
+    if (this.searching) return '';
+    return this.sort === field ? (this.direction === 'asc' ? '▲' : '▼') : '';
+  }
+
+  private resetPaging(): void {
+    this.previousCursors = [];
+    this.currentCursor = null;
+    this.nextCursor = null;
+  }
   onConfirmDelete(): void {
     if (!this.productToDelete) return;
 
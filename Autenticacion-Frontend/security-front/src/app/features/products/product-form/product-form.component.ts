@@ -39,6 +39,8 @@ export class ProductFormComponent implements OnInit {
   productForm!: FormGroup;
   isEditMode = false;
   productId: number | null = null;
+  // Versión del producto cargado, para que la actualización no pise cambios ajenos (If-Match).
+  productVersion?: number;
   error?: string | null = null;
 
   private initForm(): void {
@@ -76,6 +78,7 @@ export class ProductFormComponent implements OnInit {
       if (product) {
         // si el producto existe, lo cargamos en el formulario
         this.productForm.patchValue(product)
+        this.productVersion = product.version;
       }
     })
 
@@ -89,7 +92,7 @@ export class ProductFormComponent implements OnInit {
     const productData: ProductRequest = this.productForm.value
 
     const savedProduct$ = this.isEditMode
-      ? this.productService.updateProduct(this.productId!, productData)
+      ? this.productService.updateProduct(this.productId!, productData, this.productVersion)
       : this.productService.createProduct(productData);
 
     savedProduct$.subscribe({
@@ -98,7 +101,10 @@ export class ProductFormComponent implements OnInit {
       },
       error: (err) => {
         console.error('Error al guardar el producto', err);
-        this.error = err.message;
+        // 412: otro usuario guardó el producto después de que lo cargáramos
+        this.error = err.status === 412
+          ? 'Otro usuario modificó este producto mientras lo editabas. Recarga la página para ver sus cambios.'
+          : err.message;
       }
 
     });
@@ -1,8 +1,8 @@
 import { inject, Injectable } from '@angular/core';
 import { environment } from '../../../environments/environment';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { Product, ProductRequest } from '../../shared/models/product.model';
+import { Product, ProductPage, ProductPageQuery, ProductRequest, ProductSearchHit } from '../../shared/models/product.model';
 
 @Injectable({
   providedIn: 'root'
@@ -12,8 +12,38 @@ export class ProductService {
   private readonly apiUrl = `${environment.apiUrl}/products`;
   private http = inject(HttpClient);
 
-  getProducts(): Observable<Product[]> {
-    return this.http.get<Product[]>(this.apiUrl);
+  /**
+   * Pide una página del catálogo. La primera página se pide con `sort`/`direction`;
+   * las siguientes solo con el `cursor` que devolvió la anterior (el orden va dentro del cursor).
+   */
+  getProducts(query: ProductPageQuery = {}): Observable<ProductPage> {
+    let params = new HttpParams();
+    if (query.limit) {
+      params = params.set('limit', query.limit);
+    }
+    if (query.cursor) {
+      params = params.set('cursor', query.cursor);
+    } else {
+      if (query.sort) {
+        params = params.set('sort', query.sort);
+      }
+      if (query.direction) {
+        params = params.set('direction', query.direction);
+      }
+    }
+    return this.http.get<ProductPage>(this.apiUrl, { params });
+  }
+
+  /**
+   * Busca por texto en el nombre y la descripción. No distingue mayúsculas ni tildes
+   * y admite palabras a medio escribir; los resultados llegan ordenados por relevancia.
+   */
+  searchProducts(q: string, limit?: number): Observable<ProductSearchHit[]> {
+    let params = new HttpParams().set('q', q);
+    if (limit) {
+      params = params.set('limit', limit);
+    }
+    return this.http.get<ProductSearchHit[]>(`${this.apiUrl}/search`, { params });
   }
   getProductById(id: number): Observable<Product> {
     return this.http.get<Product>(`${this.apiUrl}/${id}`);
@@ -22,8 +52,13 @@ export class ProductService {
     return this.http.post<Product>(this.apiUrl, productData);
   }
 
-  updateProduct(id: number, productData: ProductRequest): Observable<Product> {
-    return this.http.put<Product>(`${this.apiUrl}/${id}`, productData);
+  /**
+   * Actualiza un producto. Con `version` (la leída al cargarlo) se envía If-Match: si otro usuario lo
+   * modificó entretanto, el servidor responde 412 en lugar de sobrescribir sus cambios.
+   */
+  updateProduct(id: number, productData: ProductRequest, version?: number): Observable<Product> {
+    const headers = version !== undefined ? new HttpHeaders({ 'If-Match': `"${version}"` }) : undefined;
+    return this.http.put<Product>(`${this.apiUrl}/${id}`, productData, { headers });
   }
 
   deleteProduct(id: number): Observable<void> {
@@ -3,8 +3,31 @@ export interface Product {
   name: string;
   description: string;
   price: number;
+  // Versión del producto (bloqueo optimista); se reenvía como If-Match al actualizar.
+  version: number;
+}
+/** Una página del catálogo. `nextCursor` es null en la última página. */
+export interface ProductPage {
+  items: Product[];
+  nextCursor: string | null;
+}
+
+/** Un resultado de la búsqueda de texto, con su relevancia (solo comparable dentro de la misma búsqueda). */
+export interface ProductSearchHit {
+  product: Product;
+  score: number;
+}
+
+export type ProductSortField = 'id' | 'name' | 'price';
+export type SortDirection = 'asc' | 'desc';
 
+export interface ProductPageQuery {
+  cursor?: string | null;
+  limit?: number;
+  sort?: ProductSortField;
+  direction?: SortDirection;
 }
+
 export interface ProductRequest {
   name: string;
   description: string;